@@ -4,6 +4,7 @@ import java.lang.Exception;
 import java.util.ArrayList;
 import java.util.List;
 import scene.Scene;
+import random.Randomiser;
 import texture.TextureManager;
 import texture.Texture;
 import rect.Rect;
@@ -27,9 +28,10 @@ public class Game extends PApplet {
     private Scene mScene;
 
     /// Use this class for processing main loop.
+    /// \param args optionally "--seed N" to make AI decisions reproducible.
     public static void main(String[] args) {
 
-        PApplet.main("Game");
+        PApplet.main("Game", args);
 
     }
 
@@ -105,7 +107,7 @@ public class Game extends PApplet {
             addClips(flag, 0, 3, 75, 75);
             textureManager.addTexture(Config.FLAG_TEXTURE_ID, flag);
 
-            mScene = new Scene(textureManager);
+            mScene = new Scene(textureManager, createRandomiser());
 
         } catch (Exception e) {
 
@@ -175,6 +177,21 @@ public class Game extends PApplet {
 
     }
 
+    /// Create random number generator, seeded if a seed was given on the command line.
+    /// \return the random number generator to use for the game.
+    private Randomiser createRandomiser() {
+
+        if (args != null) {
+            for (int i = 0; i + 1 < args.length; ++i) {
+                if (args[i].equals("--seed")) {
+                    return new Randomiser(Long.parseLong(args[i + 1]));
+                }
+            }
+        }
+        return new Randomiser();
+
+    }
+
     /// Add contiguous clips of a set size to a texture starting at specified index.
     /// \param texture the texture to add clips to.
     /// \param startIndex the index to start adding clips at.
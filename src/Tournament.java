@@ -0,0 +1,477 @@
+import java.lang.Exception;
+import java.lang.IllegalArgumentException;
+import java.lang.IllegalStateException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import scene.GameManager;
+import scene.SymmetricLevel;
+import scene.Level1;
+import scene.Level2;
+import scene.Level3;
+import scene.LargeLevel;
+import controller.Controller;
+import controller.AIController;
+import controller.SearchController;
+import controller.MctsController;
+import controller.BatchController;
+import controller.AsyncController;
+import controller.Planner;
+import simulation.GameState;
+import random.Randomiser;
+import config.Config;
+
+/// Command line entry point that plays headless AI vs AI matches in parallel and
+/// reports the results for each level.
+///
+/// Usage: Tournament [--matches N] [--threads N] [--level all|symmetric|1|2|3|large]
+///                   [--grid N] [--turn-limit N] [--seed N] [--p1 greedy|batch|search|mcts] [--p2 greedy|batch|search|mcts]
+///                   [--nodes N] [--time-ms N] [--search-threads N] [--check-state]
+///                   [--async]
+///
+/// The large level is the symmetric level scaled up to a grid of N x N tiles, 100 by default and
+/// up to 1000. Playing every level leaves it out. The time taken to set up each level is
+/// reported alongside its results.
+///
+/// Players are greedy AI controllers unless chosen to be batch controllers, which plan each turn
+/// for all units at once, search controllers, which search up to a number of nodes for each
+/// action and optionally stop after a number of milliseconds, or Monte Carlo controllers, which
+/// search for a number of milliseconds each turn on a number of threads. The node and playout
+/// rates of searches are reported to help size hardware. Time limits make matches depend on
+/// machine speed, so search controllers only use node limits by default.
+///
+/// Checking state applies snapshots of the start and end of every turn to a second copy of the
+/// level, failing if the copy does not match a snapshot applied to it. The copy is never played
+/// so checking does not change results.
+///
+/// Async play runs batch, search and Monte Carlo controllers on background planning threads as
+/// the interactive game does. Headless updates wait for each plan, so results are the same.
+///
+/// Each match splits its random number generator from a single seeded generator in order, so a
+/// tournament with the same seed and options plays the same matches regardless of thread count.
+public class Tournament {
+
+    /// Simulated time passed to each update. Headless games resolve actions instantly
+    /// and AI controllers carry out a whole turn per update so this only needs to be
+    /// positive.
+    private static final float SIMULATION_STEP = 1f;
+
+    // Default settings.
+    private static final int DEFAULT_MATCHES = 1000;
+    private static final int DEFAULT_TURN_LIMIT = 200;
+    private static final long DEFAULT_TIME_BUDGET = 0;
+    private static final int DEFAULT_GRID_SIZE = 100;
+
+    // Kinds of controller that can play.
+    private static final int GREEDY = 0;
+    private static final int SEARCH = 1;
+    private static final int MCTS = 2;
+    private static final int BATCH = 3;
+
+    /// Names of levels that can be played.
+    private static final String[] LEVEL_NAMES = {"Symmetric", "Level 1", "Level 2", "Level 3",
+                                                 "Large"};
+
+    /// Index of the large level, which comes after every level played when playing them all.
+    private static final int LARGE_LEVEL = 4;
+
+    /// Result of a single match.
+    private static class MatchResult {
+
+        /// Index of level played.
+        public final int level;
+
+        /// Id of winning player or 0 for a draw.
+        public final int winner;
+
+        /// Number of turns played.
+        public final int turns;
+
+        /// Nanoseconds spent setting up the level.
+        public final long setupNanos;
+
+        /// Nodes searched and nanoseconds spent searching by search controllers.
+        public final long searchNodes;
+        public final long searchNanos;
+
+        /// Playouts and nanoseconds spent searching by Monte Carlo controllers.
+        public final long rollouts;
+        public final long rolloutNanos;
+
+        public MatchResult(int level, int winner, int turns, long setupNanos, long searchNodes,
+                           long searchNanos, long rollouts, long rolloutNanos) {
+
+            this.level = level;
+            this.winner = winner;
+            this.turns = turns;
+            this.setupNanos = setupNanos;
+            this.searchNodes = searchNodes;
+            this.searchNanos = searchNanos;
+            this.rollouts = rollouts;
+            this.rolloutNanos = rolloutNanos;
+
+        }
+
+    }
+
+    /// Parse arguments, play matches and print results.
+    public static void main(String[] args) {
+
+        int matches = DEFAULT_MATCHES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int turnLimit = DEFAULT_TURN_LIMIT;
+        int level = -1;
+        int gridSize = DEFAULT_GRID_SIZE;
+        long seed = new Randomiser().randomLong();
+        int[] players = {GREEDY, GREEDY};
+        long nodeBudget = SearchController.DEFAULT_NODE_BUDGET;
+        long timeBudget = DEFAULT_TIME_BUDGET;
+        int searchThreads = 1;
+        boolean checkState = false;
+        boolean async = false;
+
+        try {
+
+            for (int i = 0; i < args.length; ++i) {
+
+                if (args[i].equals("--check-state")) {
+                    checkState = true;
+                    continue;
+                }
+                if (args[i].equals("--async")) {
+                    async = true;
+                    continue;
+                }
+                String value = (i + 1 < args.length) ? args[i + 1] : null;
+                if (value == null) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                if (args[i].equals("--matches")) {
+                    matches = Integer.parseInt(value);
+                } else if (args[i].equals("--threads")) {
+                    threads = Integer.parseInt(value);
+                } else if (args[i].equals("--turn-limit")) {
+                    turnLimit = Integer.parseInt(value);
+                } else if (args[i].equals("--level")) {
+                    level = parseLevel(value);
+                } else if (args[i].equals("--grid")) {
+                    gridSize = Integer.parseInt(value);
+                } else if (args[i].equals("--seed")) {
+                    seed = Long.parseLong(value);
+                } else if (args[i].equals("--p1")) {
+                    players[0] = parsePlayer(value);
+                } else if (args[i].equals("--p2")) {
+                    players[1] = parsePlayer(value);
+                } else if (args[i].equals("--nodes")) {
+                    nodeBudget = Long.parseLong(value);
+                } else if (args[i].equals("--time-ms")) {
+                    timeBudget = Long.parseLong(value);
+                } else if (args[i].equals("--search-threads")) {
+                    searchThreads = Integer.parseInt(value);
+                } else {
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+                }
+                ++i;
+
+            }
+            if (matches <= 0 || threads <= 0 || turnLimit <= 0 || nodeBudget <= 0 ||
+                searchThreads <= 0) {
+                throw new IllegalArgumentException("Counts must be positive");
+            }
+            if (timeBudget < 0) {
+                throw new IllegalArgumentException("Time limit must not be negative");
+            }
+            if (gridSize < LargeLevel.MIN_SIZE || gridSize > LargeLevel.MAX_SIZE) {
+                throw new IllegalArgumentException("Grid size must be from " +
+                                                   LargeLevel.MIN_SIZE + " to " +
+                                                   LargeLevel.MAX_SIZE);
+            }
+
+        } catch (IllegalArgumentException e) {
+
+            System.err.println(e.getMessage());
+            System.err.println("Usage: Tournament [--matches N] [--threads N] " +
+                               "[--level all|symmetric|1|2|3|large] [--grid N] " +
+                               "[--turn-limit N] [--seed N] " +
+                               "[--p1 greedy|batch|search|mcts] " +
+                               "[--p2 greedy|batch|search|mcts] " +
+                               "[--nodes N] [--time-ms N] [--search-threads N] " +
+                               "[--check-state] [--async]");
+            System.exit(1);
+
+        }
+
+        try {
+            run(matches, threads, level, gridSize, turnLimit, seed, players, nodeBudget,
+                timeBudget, searchThreads, checkState, async);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+    }
+
+    /// Play matches across a thread pool and print results.
+    /// \param matches number of matches to play.
+    /// \param threads number of threads to play matches on.
+    /// \param level index of level to play or -1 to cycle through every level but the large one.
+    /// \param gridSize number of tiles along each side of the large level.
+    /// \param turnLimit number of turns after which a match is declared a draw.
+    /// \param seed seed for the generator that match generators are split from.
+    /// \param players kind of controller for each player.
+    /// \param nodeBudget number of nodes after which each search stops.
+    /// \param timeBudget milliseconds after which each search stops or 0 for no limit.
+    /// \param searchThreads number of threads each Monte Carlo search runs on.
+    /// \param checkState whether to check snapshots of each turn apply to a copy of the level.
+    /// \param async whether to plan on background threads.
+    private static void run(int matches, int threads, int level, int gridSize, int turnLimit,
+                            long seed, int[] players, long nodeBudget, long timeBudget,
+                            int searchThreads, boolean checkState,
+                            boolean async) throws Exception {
+
+        Randomiser randomiser = new Randomiser(seed);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<MatchResult>> futures = new ArrayList<>();
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < matches; ++i) {
+
+            int matchLevel = (level < 0) ? (i % LARGE_LEVEL) : level;
+            Randomiser matchRandomiser = randomiser.split();
+            Callable<MatchResult> match =
+                () -> {
+                    return playMatch(matchLevel, gridSize, turnLimit, matchRandomiser, players,
+                                     nodeBudget, timeBudget, searchThreads, checkState, async);
+                };
+            futures.add(executor.submit(match));
+
+        }
+
+        // Collect results for each level.
+        int[][] wins = new int[LEVEL_NAMES.length][Config.PLAYER_COUNT + 1];
+        int[] played = new int[LEVEL_NAMES.length];
+        long[] turns = new long[LEVEL_NAMES.length];
+        long[] setupNanos = new long[LEVEL_NAMES.length];
+        long searchNodes = 0;
+        long searchNanos = 0;
+        long rollouts = 0;
+        long rolloutNanos = 0;
+        for (Future<MatchResult> future : futures) {
+            MatchResult result = future.get();
+            ++wins[result.level][result.winner];
+            ++played[result.level];
+            turns[result.level] += result.turns;
+            setupNanos[result.level] += result.setupNanos;
+            searchNodes += result.searchNodes;
+            searchNanos += result.searchNanos;
+            rollouts += result.rollouts;
+            rolloutNanos += result.rolloutNanos;
+        }
+        executor.shutdown();
+
+        float seconds = (System.nanoTime() - startTime) / 1e9f;
+        printResults(wins, played, turns, setupNanos);
+        System.out.printf("%d matches in %.2f s on %d threads (%.1f matches/s), seed %d%n",
+                          matches, seconds, threads, matches / seconds, seed);
+        if (searchNanos > 0) {
+            System.out.printf("%d search nodes in %.2f s of search (%.0f nodes/s per thread)%n",
+                              searchNodes, searchNanos / 1e9f, searchNodes * 1e9 / searchNanos);
+        }
+        if (rolloutNanos > 0) {
+            System.out.printf("%d playouts in %.2f s of search (%.0f playouts/s per search)%n",
+                              rollouts, rolloutNanos / 1e9f, rollouts * 1e9 / rolloutNanos);
+        }
+
+    }
+
+    /// Play a single headless AI vs AI match.
+    /// \param level index of level to play.
+    /// \param gridSize number of tiles along each side of the large level.
+    /// \param turnLimit number of turns after which the match is declared a draw.
+    /// \param randomiser random number generator for the match.
+    /// \param players kind of controller for each player.
+    /// \param nodeBudget number of nodes after which each search stops.
+    /// \param timeBudget milliseconds after which each search stops or 0 for no limit.
+    /// \param searchThreads number of threads each Monte Carlo search runs on.
+    /// \param checkState whether to check snapshots of each turn apply to a copy of the level.
+    /// \param async whether to plan on background threads.
+    /// \return result of the match.
+    private static MatchResult playMatch(int level, int gridSize, int turnLimit,
+                                         Randomiser randomiser, int[] players, long nodeBudget, long timeBudget,
+                                         int searchThreads, boolean checkState,
+                                         boolean async) {
+
+        // Every player splits a generator so matches with and without search controllers
+        // use the same level generators.
+        Controller[] controllers = new Controller[players.length];
+        for (int i = 0; i < players.length; ++i) {
+            Randomiser controllerRandomiser = randomiser.split();
+            if (players[i] == SEARCH) {
+                controllers[i] = new SearchController(nodeBudget, timeBudget);
+            } else if (players[i] == MCTS) {
+                long turnBudget = (timeBudget > 0) ? timeBudget :
+                                                     MctsController.DEFAULT_TURN_BUDGET;
+                controllers[i] = new MctsController(controllerRandomiser, turnBudget,
+                                                    searchThreads);
+            } else if (players[i] == BATCH) {
+                controllers[i] = new BatchController(controllerRandomiser);
+            } else {
+                controllers[i] = new AIController(controllerRandomiser);
+            }
+        }
+
+        // Planners keep their statistics, so keep them apart from the controllers playing.
+        Controller[] playing = controllers.clone();
+        if (async) {
+            for (int i = 0; i < players.length; ++i) {
+                if (controllers[i] instanceof Planner) {
+                    playing[i] = new AsyncController((Planner)controllers[i]);
+                }
+            }
+        }
+
+        long setupStart = System.nanoTime();
+        GameManager game = createLevel(level, gridSize, randomiser, playing);
+        long setupNanos = System.nanoTime() - setupStart;
+        GameManager copy = null;
+        GameState turnStart = null;
+        if (checkState) {
+            Controller[] copyControllers = new Controller[players.length];
+            for (int i = 0; i < players.length; ++i) {
+                copyControllers[i] = new AIController(new Randomiser());
+            }
+            copy = createLevel(level, gridSize, new Randomiser(), copyControllers);
+            turnStart = new GameState(game);
+        }
+        while (!game.gameIsOver() && game.getTurn() < turnLimit) {
+            int turn = game.getTurn();
+            game.update(null, SIMULATION_STEP);
+            if (checkState && game.getTurn() != turn) {
+                GameState turnEnd = new GameState(game);
+                checkApply(copy, turnStart);
+                checkApply(copy, turnEnd);
+                turnStart = turnEnd;
+            }
+        }
+
+        long searchNodes = 0;
+        long searchNanos = 0;
+        long rollouts = 0;
+        long rolloutNanos = 0;
+        for (Controller controller : controllers) {
+            if (controller instanceof SearchController) {
+                searchNodes += ((SearchController)controller).getNodes();
+                searchNanos += ((SearchController)controller).getElapsedNanos();
+            } else if (controller instanceof MctsController) {
+                MctsController mcts = (MctsController)controller;
+                rollouts += mcts.getRollouts();
+                rolloutNanos += mcts.getElapsedNanos();
+                mcts.shutdown();
+            }
+        }
+        for (Controller controller : playing) {
+            if (controller instanceof AsyncController) {
+                ((AsyncController)controller).shutdown();
+            }
+        }
+        return new MatchResult(level, game.getWinner(), game.getTurn(), setupNanos, searchNodes,
+                               searchNanos, rollouts, rolloutNanos);
+
+    }
+
+    /// Apply a snapshot to a game and check the game matches it afterwards.
+    /// \param game game on the same board as the snapshot.
+    /// \param state snapshot to apply.
+    private static void checkApply(GameManager game, GameState state) {
+
+        game.applyState(state);
+        if (!new GameState(game).matches(state)) {
+            throw new IllegalStateException("Snapshot did not apply on turn " + state.getTurn());
+        }
+
+    }
+
+    /// Create a headless level.
+    /// \param level index of level to create.
+    /// \param gridSize number of tiles along each side of the large level.
+    /// \param randomiser random number generator for the match.
+    /// \param controllers controller of each player.
+    /// \return the created level.
+    private static GameManager createLevel(int level, int gridSize, Randomiser randomiser,
+                                           Controller[] controllers) {
+
+        switch (level) {
+            case 0:
+                return new SymmetricLevel(null, randomiser, controllers);
+            case 1:
+                return new Level1(null, randomiser, controllers);
+            case 2:
+                return new Level2(null, randomiser, controllers);
+            case 3:
+                return new Level3(null, randomiser, controllers);
+            default:
+                return new LargeLevel(null, randomiser, controllers, gridSize);
+        }
+
+    }
+
+    /// Get the index of a level from its command line name.
+    /// \param name name of level or "all".
+    /// \return index of level or -1 for all levels.
+    private static int parseLevel(String name) {
+
+        if (name.equals("all")) {
+            return -1;
+        } else if (name.equals("symmetric")) {
+            return 0;
+        } else if (name.equals("1") || name.equals("2") || name.equals("3")) {
+            return Integer.parseInt(name);
+        } else if (name.equals("large")) {
+            return LARGE_LEVEL;
+        }
+        throw new IllegalArgumentException("Unknown level " + name);
+
+    }
+
+    /// Get the kind of controller from its command line name.
+    private static int parsePlayer(String name) {
+
+        if (name.equals("greedy")) {
+            return GREEDY;
+        } else if (name.equals("search")) {
+            return SEARCH;
+        } else if (name.equals("mcts")) {
+            return MCTS;
+        } else if (name.equals("batch")) {
+            return BATCH;
+        }
+        throw new IllegalArgumentException("Unknown player " + name);
+
+    }
+
+    /// Print win rates, average turns and average setup time for each level played.
+    private static void printResults(int[][] wins, int[] played, long[] turns,
+                                     long[] setupNanos) {
+
+        System.out.printf("%-10s %8s %8s %8s %8s %10s %10s%n",
+                          "Level", "Matches", "P1 Win", "P2 Win", "Draw", "Avg Turns",
+                          "Setup ms");
+        for (int i = 0; i < LEVEL_NAMES.length; ++i) {
+            if (played[i] > 0) {
+                float total = played[i];
+                System.out.printf("%-10s %8d %7.1f%% %7.1f%% %7.1f%% %10.1f %10.2f%n",
+                                  LEVEL_NAMES[i], played[i],
+                                  100f * wins[i][Config.PLAYER1] / total,
+                                  100f * wins[i][Config.PLAYER2] / total,
+                                  100f * wins[i][0] / total,
+                                  turns[i] / total,
+                                  setupNanos[i] / 1e6f / total);
+            }
+        }
+
+    }
+
+}
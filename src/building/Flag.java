@@ -6,8 +6,8 @@ import texture.Texture;
 public class Flag extends Building {
 
     public final static int POINTS_VALUE = 500;
-    private final static float BOOST = 0.2f;
-    private final static float PROTECTION = 0.3f;
+    public final static float BOOST = 0.2f;
+    public final static float PROTECTION = 0.3f;
 
     /// Initialise flag.
     public Flag(Texture texture) {
@@ -0,0 +1,179 @@
+package collection;
+
+import java.lang.IllegalArgumentException;
+import java.util.Arrays;
+
+/// Map from int keys to objects using open addressing with linear probing. Keys are stored in a
+/// primitive array so lookups and insertions do not box or allocate, and clearing keeps the
+/// storage for reuse.
+///
+/// Entries can be iterated without allocating by looping over slots up to getCapacity and
+/// reading the slots for which isUsed is true.
+public final class IntObjectMap<V> {
+
+    /// Key marking an empty slot. It cannot be used as a key.
+    public static final int EMPTY = Integer.MIN_VALUE;
+
+    private static final int MIN_CAPACITY = 16;
+
+    /// Keys in each slot, EMPTY for unused slots.
+    private int[] mKeys;
+
+    /// Values in each slot.
+    private Object[] mValues;
+
+    /// Number of entries.
+    private int mSize;
+
+    /// Initialise an empty map.
+    public IntObjectMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /// Initialise an empty map sized to hold a number of entries without growing.
+    /// \param expected number of entries expected.
+    public IntObjectMap(int expected) {
+
+        int capacity = MIN_CAPACITY;
+        while (capacity < expected * 2) {
+            capacity *= 2;
+        }
+        mKeys = new int[capacity];
+        mValues = new Object[capacity];
+        Arrays.fill(mKeys, EMPTY);
+        mSize = 0;
+
+    }
+
+    /// Get the value of a key.
+    /// \return the value or null if the key is not in the map.
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+
+        int slot = find(key);
+        return (key != EMPTY && mKeys[slot] == key) ? (V)mValues[slot] : null;
+
+    }
+
+    /// Check whether a key is in the map.
+    public boolean containsKey(int key) {
+        return key != EMPTY && mKeys[find(key)] == key;
+    }
+
+    /// Set the value of a key, adding the key if it is not in the map.
+    public void put(int key, V value) {
+
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("EMPTY cannot be used as a key");
+        }
+        int slot = find(key);
+        if (mKeys[slot] != key) {
+            if ((mSize + 1) * 2 > mKeys.length) {
+                grow();
+                slot = find(key);
+            }
+            mKeys[slot] = key;
+            ++mSize;
+        }
+        mValues[slot] = value;
+
+    }
+
+    /// Remove a key from the map.
+    /// \return whether the key was in the map.
+    public boolean remove(int key) {
+
+        int slot = find(key);
+        if (key == EMPTY || mKeys[slot] != key) {
+            return false;
+        }
+
+        // Shift later entries of the probe sequence back so lookups do not stop early.
+        int mask = mKeys.length - 1;
+        int empty = slot;
+        for (int i = (slot + 1) & mask; mKeys[i] != EMPTY; i = (i + 1) & mask) {
+            int home = IntIntMap.hash(mKeys[i]) & mask;
+            if (((i - home) & mask) >= ((i - empty) & mask)) {
+                mKeys[empty] = mKeys[i];
+                mValues[empty] = mValues[i];
+                empty = i;
+            }
+        }
+        mKeys[empty] = EMPTY;
+        mValues[empty] = null;
+        --mSize;
+        return true;
+
+    }
+
+    /// Get the number of entries.
+    public int size() {
+        return mSize;
+    }
+
+    /// Check whether the map is empty.
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /// Remove all entries, keeping storage.
+    public void clear() {
+
+        Arrays.fill(mKeys, EMPTY);
+        Arrays.fill(mValues, null);
+        mSize = 0;
+
+    }
+
+    /// Get the number of slots.
+    public int getCapacity() {
+        return mKeys.length;
+    }
+
+    /// Check whether a slot holds an entry.
+    public boolean isUsed(int slot) {
+        return mKeys[slot] != EMPTY;
+    }
+
+    /// Get the key in a used slot.
+    public int getKeyAt(int slot) {
+        return mKeys[slot];
+    }
+
+    /// Get the value in a used slot.
+    @SuppressWarnings("unchecked")
+    public V getValueAt(int slot) {
+        return (V)mValues[slot];
+    }
+
+    /// Find the slot holding a key or the empty slot where it would be inserted.
+    private int find(int key) {
+
+        int mask = mKeys.length - 1;
+        int slot = IntIntMap.hash(key) & mask;
+        while (mKeys[slot] != EMPTY && mKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+
+    }
+
+    /// Double the number of slots and reinsert every entry.
+    private void grow() {
+
+        int[] keys = mKeys;
+        Object[] values = mValues;
+        mKeys = new int[keys.length * 2];
+        mValues = new Object[values.length * 2];
+        Arrays.fill(mKeys, EMPTY);
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i] != EMPTY) {
+                int slot = find(keys[i]);
+                mKeys[slot] = keys[i];
+                mValues[slot] = values[i];
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,82 @@
+package collection;
+
+import java.lang.Math;
+import java.util.Arrays;
+
+/// Binary min-heap of longs stored in a primitive array. Searches pack a priority into the high
+/// bits of each entry and an index into the low bits, so the smallest entry is the one with the
+/// lowest priority. Clearing keeps the storage for reuse.
+public final class LongMinHeap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    /// Entries in heap order.
+    private long[] mEntries;
+
+    /// Number of entries.
+    private int mSize;
+
+    /// Create an empty heap.
+    /// \param capacity number of entries to allocate storage for. The heap grows past it.
+    public LongMinHeap(int capacity) {
+
+        mEntries = new long[Math.max(capacity, MIN_CAPACITY)];
+        mSize = 0;
+
+    }
+
+    /// Get the number of entries.
+    public int size() {
+        return mSize;
+    }
+
+    /// Check whether the heap has no entries.
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /// Remove every entry, keeping the storage.
+    public void clear() {
+        mSize = 0;
+    }
+
+    /// Add an entry.
+    /// \param entry entry to add.
+    public void push(long entry) {
+
+        if (mSize == mEntries.length) {
+            mEntries = Arrays.copyOf(mEntries, mSize * 2);
+        }
+        int i = mSize++;
+        while (i > 0 && mEntries[(i - 1) / 2] > entry) {
+            mEntries[i] = mEntries[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        mEntries[i] = entry;
+
+    }
+
+    /// Remove the smallest entry.
+    /// \return the removed entry.
+    public long pop() {
+
+        long top = mEntries[0];
+        long last = mEntries[--mSize];
+        int i = 0;
+        while (2 * i + 1 < mSize) {
+            int child = 2 * i + 1;
+            if (child + 1 < mSize && mEntries[child + 1] < mEntries[child]) {
+                ++child;
+            }
+            if (mEntries[child] >= last) {
+                break;
+            }
+            mEntries[i] = mEntries[child];
+            i = child;
+        }
+        mEntries[i] = last;
+        return top;
+
+    }
+
+}
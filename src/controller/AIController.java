@@ -2,12 +2,14 @@ package controller;
 
 import processing.core.PVector;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.lang.Runnable;
 import scene.GameManager;
 import grid.Grid;
 import grid.Coordinates;
+import grid.TileSet;
+import grid.FlowField;
 import unit.Unit;
+import unit.CombatForecast;
 import unit.Snake;
 import unit.WheelSnake;
 import unit.JetSnake;
@@ -25,6 +27,11 @@ public class AIController extends Controller {
     /// Duration to wait before acting.
     private static final float WAIT_DURATION = 1f;
 
+    // Objectives units move towards.
+    private static final int FLAG_OBJECTIVE = 0;
+    private static final int HQ_OBJECTIVE = 1;
+    private static final int OBJECTIVE_COUNT = 2;
+
     /// Time passed waiting.
     private float mWaitProgress;
 
@@ -44,8 +51,24 @@ public class AIController extends Controller {
     /// out/ has been completed.
     private boolean mLastAction;
 
-    public AIController() {
+    /// Random number generator used for decisions.
+    private final Randomiser mRandomiser;
+
+    /// Flow fields towards each objective for each move type, computed when first needed in a
+    /// turn and shared by every unit.
+    private final FlowField[][] mFlowFields;
+
+    /// Flow fields towards each objective for each move type over terrain alone, used when
+    /// enemy units block every route.
+    private final FlowField[][] mTerrainFields;
+
+    /// Initialise controller.
+    /// \param randomiser random number generator to use for decisions.
+    public AIController(Randomiser randomiser) {
 
+        mRandomiser = randomiser;
+        mFlowFields = new FlowField[OBJECTIVE_COUNT][Unit.MOVE_TYPE_COUNT];
+        mTerrainFields = new FlowField[OBJECTIVE_COUNT][Unit.MOVE_TYPE_COUNT];
         mWaitProgress = 0f;
         mWaitingHqs = null;
         mWaitingUnits = null;
@@ -61,19 +84,36 @@ public class AIController extends Controller {
     /// \param delta time since last update.
     public void update(GameManager gameManager, PVector mousePos, float delta) {
 
-        // First wait set period before carrying out actions.
+        // First wait set period before carrying out actions. Headless games have
+        // no one watching so do not wait.
         if (mWaitingUnits == null) {
 
             mWaitProgress += delta;
-            if (mWaitProgress >= WAIT_DURATION) {
+            if (mWaitProgress >= WAIT_DURATION || gameManager.isHeadless()) {
                 mWaitProgress = 0f;
                 PlayerStatus status = gameManager.getActiveStatus();
                 mWaitingHqs = status.getHqs();
                 mWaitingUnits = status.getUnits();
+                clearFlowFields();
             }
 
+        }
+
+        // Carry out actions until the turn ends or an action has to wait for a unit
+        // to finish animating. With instant resolution the whole turn is carried out
+        // in one update.
+        while (mWaitingUnits != null && !isWaiting()) {
+            act(gameManager);
+        }
+
+    }
+
+    /// Carry out the next step of the turn.
+    /// \param gameManager game to carry out actions in.
+    private void act(GameManager gameManager) {
+
         // If there are waiting units carry out unit actions.
-        } else if (!mWaitingUnits.isEmpty()) {
+        if (!mWaitingUnits.isEmpty()) {
 
             updateUnits(gameManager);
 
@@ -94,6 +134,18 @@ public class AIController extends Controller {
             mLastAction = false;
 
         } 
+
+    }
+
+    /// Check whether the next step must wait for the current unit or the unit it
+    /// depends on to finish being busy.
+    private boolean isWaiting() {
+
+        if (mWaitingUnits.isEmpty()) {
+            return false;
+        }
+        return mWaitingUnits.get(0).isBusy() || (mDependent != null && mDependent.isBusy());
+
     }
 
     /// Update waiting hqs.
@@ -104,7 +156,7 @@ public class AIController extends Controller {
         ArrayList<Runnable> buildActions = getBuildActions(gameManager, hq);
 
         // Choose build action randomly (or no action).
-        int index = Randomiser.randomInt(0, 3);
+        int index = mRandomiser.randomInt(0, 3);
         if (index < buildActions.size()) {
             buildActions.get(index).run();
         }
@@ -160,7 +212,7 @@ public class AIController extends Controller {
 
         // Attempt to capture a nearby flag or attack a nearby unit.
         // If both attempts fail then try and move towards a nearby objective.
-        ArrayList<Coordinates> destinations = unit.getDestinations();
+        TileSet destinations = unit.getDestinationSet();
         if (!attemptCapture(gameManager, unit, destinations) &&
             !attemptAttack(gameManager, unit, destinations)) {
 
@@ -174,17 +226,17 @@ public class AIController extends Controller {
     /// \param gameManager game to carry out actions in.
     /// \param unit the unit attack with.
     /// \param destinations moves available to the unit.
-    private boolean attemptAttack(GameManager gameManager, Unit unit,
-                                  ArrayList<Coordinates> destinations) {
+    private boolean attemptAttack(GameManager gameManager, Unit unit, TileSet destinations) {
 
         // First check if attack possible without move.
-        chooseTarget(gameManager, unit, unit.getAttackTargets());
+        chooseTarget(gameManager, unit, unit.getCoords(), unit.getAttackTargets());
 
         // Otherwise try and move then attack.
-        Iterator<Coordinates> it = destinations.iterator();
-        while (mAction == null && it.hasNext()) {
-            Coordinates current = it.next();
-            if (chooseTarget(gameManager, unit, unit.getAttackTargets(current))) {
+        Grid grid = gameManager.getGrid();
+        for (int i = destinations.next(0); mAction == null && i >= 0;
+             i = destinations.next(i + 1)) {
+            Coordinates current = grid.getCoords(i);
+            if (chooseTarget(gameManager, unit, current, unit.getAttackTargets(current))) {
                 gameManager.move(unit.getCoords(), current);
             }
         }
@@ -192,23 +244,46 @@ public class AIController extends Controller {
 
     }
 
-    /// Choose a target and assign attack for a unit.
+    /// Choose a target and assign attack for a unit. Targets that would be destroyed are
+    /// preferred, then those that take the most damage for the least counter damage.
     /// \param gameManager game to carry out actions in.
     /// \param target the unit attack with.
+    /// \param from position the unit attacks from.
     /// \param targets attacks available to the unit.
     /// \return whether an attack was assigned.
-    private boolean chooseTarget(GameManager gameManager, Unit unit, 
+    private boolean chooseTarget(GameManager gameManager, Unit unit, Coordinates from,
                                  ArrayList<Coordinates> targets) {
 
         if (targets.isEmpty()) {
             return false;
         }
-        Coordinates target = targets.get(Randomiser.randomInt(0, targets.size() - 1));
+        Grid grid = gameManager.getGrid();
+        Coordinates best = null;
+        float bestScore = 0f;
+        boolean bestKills = false;
+        for (Coordinates current : targets) {
+            CombatForecast forecast = unit.forecastAttack(from, grid.getTile(current).getUnit());
+            float score = (forecast.isKill() ? Unit.BASE_HITPOINTS * 2 : 0) +
+                          forecast.getDamage() - forecast.getCounterDamage();
+            if (best == null || score > bestScore) {
+                best = current;
+                bestScore = score;
+                bestKills = forecast.isKill();
+            }
+        }
+
+        // Destroying a unit opens the routes it blocked. Animated attacks only destroy units when
+        // they finish, so the forecast decides whether flow fields need recomputing.
+        Coordinates target = best;
+        boolean kills = bestKills;
         mAction =
             () -> {
-                gameManager.attack(unit.getCoords(), target); 
+                gameManager.attack(unit.getCoords(), target);
+                if (kills) {
+                    clearFlowFields();
+                }
             };
-        mDependent = gameManager.getGrid().getTile(target).getUnit();
+        mDependent = grid.getTile(target).getUnit();
         return true;
 
     }
@@ -217,16 +292,16 @@ public class AIController extends Controller {
     /// \param gameManager game to carry out actions in.
     /// \param unit the unit to capture with.
     /// \param destinations moves available to the unit.
-    private boolean attemptCapture(GameManager gameManager, Unit unit,
-                                   ArrayList<Coordinates> destinations) {
+    private boolean attemptCapture(GameManager gameManager, Unit unit, TileSet destinations) {
 
         // Attempt to capture flag on current position.
         chooseCapture(gameManager, unit, unit.getCoords());
 
         // Otherwise attempt to move and capture a flag.
-        Iterator<Coordinates> it = destinations.iterator();
-        while (mAction == null && it.hasNext()) {
-            Coordinates current = it.next();
+        Grid grid = gameManager.getGrid();
+        for (int i = destinations.next(0); mAction == null && i >= 0;
+             i = destinations.next(i + 1)) {
+            Coordinates current = grid.getCoords(i);
             if (chooseCapture(gameManager, unit, current)) {
                 gameManager.move(unit.getCoords(), current);
             }
@@ -246,6 +321,7 @@ public class AIController extends Controller {
             mAction =
                 () -> {
                     gameManager.capture(coords); 
+                    clearFlowFields();
                 };
             return true;
         }
@@ -257,78 +333,133 @@ public class AIController extends Controller {
     /// \param gameManager game to carry out actions in.
     /// \param unit the unit to move.
     /// \param destinations moves available to the unit.
-    private void attemptMove(GameManager gameManager, Unit unit,
-                             ArrayList<Coordinates> destinations) {
+    private void attemptMove(GameManager gameManager, Unit unit, TileSet destinations) {
 
-        // Get list of flags not owned by this player.
+        // Move towards flags while the player owns less than half of them, otherwise towards
+        // enemy HQs.
         PlayerStatus enemyStatus = gameManager.getInactiveStatus();
-        ArrayList<Flag> flags = enemyStatus.getFlags();
-        ArrayList<Coordinates> unownedPos = new ArrayList<>();
-        for (Flag flag : flags) {
-            if (flag.getOwner() != unit.getPlayer()) {
-                unownedPos.add(flag.getCoords());
-            }
+        ArrayList<Coordinates> targets = getFlagTargets(gameManager, unit.getPlayer());
+        int objective = FLAG_OBJECTIVE;
+        if (targets.size() <= (enemyStatus.getFlags().size() / 2)) {
+            objective = HQ_OBJECTIVE;
         }
 
-        // If unit's owner owns less than half of all flags move towards nearest flag.
-        if (unownedPos.size() > (flags.size() / 2)) {
-
-            moveTowardsNearest(gameManager, unit, destinations, unownedPos);
-        
-        // Otherwise, move towards nearest enemy hq.
-        } else {
-
-            ArrayList<HeadQuarters> enemyHqs = enemyStatus.getHqs();
-            ArrayList<Coordinates> hqPos = new ArrayList<>();
-            for (HeadQuarters hq : enemyHqs) {
-                hqPos.add(hq.getCoords());
-            }
-            moveTowardsNearest(gameManager, unit, destinations, hqPos);
-
+        // Descend the objective's flow field, falling back to the terrain field if enemy units
+        // block every route.
+        FlowField field = getFlowField(gameManager, objective, unit);
+        if (field.getCost(unit.getCoords()) == Grid.UNREACHABLE) {
+            field = getTerrainField(gameManager, objective, unit);
         }
+        descend(gameManager, unit, destinations, field);
 
         mLastAction = true;
 
     }
 
-    /// Move unit towards closest target.
+    /// Move unit to the destination with the lowest cost in a flow field if it is lower than the
+    /// cost of the unit's current position.
     /// \param gameManager game to carry out actions in.
     /// \param unit the unit to move.
     /// \param destinations moves available to the unit.
-    /// \param targets to move towards.
-    private void moveTowardsNearest(GameManager gameManager, Unit unit,
-                                    ArrayList<Coordinates> destinations,
-                                    ArrayList<Coordinates> targets) {
-
-        // Get paths to targets, and find which path is shortest.
-        ArrayList<Coordinates> shortest = null;
-        for (Coordinates target : targets) {
-            ArrayList<Coordinates> path = unit.getShortestPath(target);
-            if (path != null && (shortest == null || shortest.size() > path.size())) {
-                shortest = path;
+    /// \param field flow field to descend.
+    private void descend(GameManager gameManager, Unit unit, TileSet destinations,
+                         FlowField field) {
+
+        int moveTarget = -1;
+        int moveCost = field.getCost(unit.getCoords());
+        for (int i = destinations.next(0); i >= 0; i = destinations.next(i + 1)) {
+            int cost = field.getCost(i);
+            if (cost != Grid.UNREACHABLE && cost < moveCost) {
+                moveTarget = i;
+                moveCost = cost;
             }
         }
+        if (moveTarget >= 0) {
+            gameManager.move(unit.getCoords(), gameManager.getGrid().getCoords(moveTarget));
+        }
 
-        // Move unit as far along path as possible.
-        if (shortest != null) {
+    }
 
-            Coordinates moveTarget = null;
-            for (int i = 0; i < shortest.size(); ++i) {
+    /// Get the flow field towards an objective for a unit's move type, computing it if it has
+    /// not been computed this turn.
+    /// \param gameManager game the field is for.
+    /// \param objective FLAG_OBJECTIVE or HQ_OBJECTIVE.
+    /// \param unit unit that will follow the field.
+    private FlowField getFlowField(GameManager gameManager, int objective, Unit unit) {
+
+        int moveType = unit.getMoveType();
+        if (mFlowFields[objective][moveType] == null) {
+            mFlowFields[objective][moveType] =
+                new FlowField(gameManager.getGrid(), moveType,
+                              getTargets(gameManager, objective, unit), unit.getPlayer());
+        }
+        return mFlowFields[objective][moveType];
 
-                Coordinates current = shortest.get(i);
-                if (destinations.contains(current)) {
-                    moveTarget = current;
-                } 
+    }
+
+    /// Get the flow field towards an objective over terrain alone for a unit's move type,
+    /// computing it if it has not been computed this turn. Every target is a source of the same
+    /// field, so it leads to the nearest one.
+    /// \param gameManager game the field is for.
+    /// \param objective FLAG_OBJECTIVE or HQ_OBJECTIVE.
+    /// \param unit unit that will follow the field.
+    private FlowField getTerrainField(GameManager gameManager, int objective, Unit unit) {
+
+        int moveType = unit.getMoveType();
+        if (mTerrainFields[objective][moveType] == null) {
+            mTerrainFields[objective][moveType] =
+                new FlowField(gameManager.getGrid(), moveType,
+                              getTargets(gameManager, objective, unit), FlowField.IGNORE_UNITS);
+        }
+        return mTerrainFields[objective][moveType];
 
+    }
+
+    /// Get the positions a unit heads for to reach an objective.
+    /// \param gameManager game the targets are in.
+    /// \param objective FLAG_OBJECTIVE or HQ_OBJECTIVE.
+    /// \param unit unit heading for the objective.
+    private ArrayList<Coordinates> getTargets(GameManager gameManager, int objective, Unit unit) {
+        return (objective == FLAG_OBJECTIVE) ? getFlagTargets(gameManager, unit.getPlayer()) :
+                                               getHqTargets(gameManager);
+    }
+
+    /// Remove flow fields so they are recomputed for the current board.
+    private void clearFlowFields() {
+
+        for (int objective = 0; objective < OBJECTIVE_COUNT; ++objective) {
+            for (int moveType = 0; moveType < Unit.MOVE_TYPE_COUNT; ++moveType) {
+                mFlowFields[objective][moveType] = null;
+                mTerrainFields[objective][moveType] = null;
             }
-            if (moveTarget != null) {
-                gameManager.move(unit.getCoords(), moveTarget);
+        }
+
+    }
+
+    /// Get the positions of flags not owned by a player.
+    private ArrayList<Coordinates> getFlagTargets(GameManager gameManager, int player) {
+
+        ArrayList<Coordinates> targets = new ArrayList<>();
+        for (Flag flag : gameManager.getInactiveStatus().getFlags()) {
+            if (flag.getOwner() != player) {
+                targets.add(flag.getCoords());
             }
+        }
+        return targets;
+
+    }
+
+    /// Get the positions of enemy HQs.
+    private ArrayList<Coordinates> getHqTargets(GameManager gameManager) {
 
+        ArrayList<Coordinates> targets = new ArrayList<>();
+        for (HeadQuarters hq : gameManager.getInactiveStatus().getHqs()) {
+            targets.add(hq.getCoords());
         }
+        return targets;
 
     }
-         
+
     /// Get a list of possible build actions.
     /// \param gameManager game that actions are for.
     /// \param hq hq that these actions are to be carried out by.
@@ -342,7 +473,7 @@ public class AIController extends Controller {
         }
 
         // Choose position to build new units.
-        int index = Randomiser.randomInt(0, buildCoords.size() - 1);
+        int index = mRandomiser.randomInt(0, buildCoords.size() - 1);
         Coordinates buildTarget = buildCoords.get(index);
 
         // Add possible build actions.
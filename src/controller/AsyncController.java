@@ -0,0 +1,190 @@
+package controller;
+
+import processing.core.PVector;
+import java.lang.IllegalStateException;
+import java.lang.InterruptedException;
+import java.lang.Thread;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import scene.GameManager;
+import simulation.GameState;
+import simulation.Action;
+import simulation.ActionList;
+
+/// Controller that runs a planner on a background thread so the game keeps updating and
+/// rendering while it thinks. Each plan is made from a snapshot of the game, and the planned
+/// actions are carried out on the thread the game is updated on as units finish animating.
+///
+/// Headless games have no frames to keep, so their updates wait for plans to finish.
+public class AsyncController extends Controller {
+
+    /// Duration to wait before acting.
+    private static final float WAIT_DURATION = 1f;
+
+    /// Seconds an idle planning thread is kept before it stops.
+    private static final long KEEP_ALIVE = 5;
+
+    /// Planner used to plan actions.
+    private final Planner mPlanner;
+
+    /// Thread plans are made on.
+    private final ExecutorService mExecutor;
+
+    /// Plan being made or null if none is in progress.
+    private Future<ActionList> mPending;
+
+    /// Flag that stops the plan being made. Each plan gets its own.
+    private AtomicBoolean mPendingStop;
+
+    /// Actions planned that have not yet been carried out or null if there is no plan.
+    private ActionList mPlan;
+    private int mPlanPosition;
+
+    /// State read from the game, copied for each plan.
+    private GameState mState;
+
+    /// Game the state was read from.
+    private GameManager mGame;
+
+    /// Time passed waiting.
+    private float mWaitProgress;
+
+    /// Initialise controller.
+    /// \param planner planner to run in the background. It must not be used by anything else
+    ///                while this controller is in use.
+    public AsyncController(Planner planner) {
+
+        mPlanner = planner;
+        mExecutor = new ThreadPoolExecutor(0, 1, KEEP_ALIVE, TimeUnit.SECONDS,
+                                           new LinkedBlockingQueue<>(),
+                                           (runnable) -> {
+                                               Thread thread = new Thread(runnable, "Planner");
+                                               thread.setDaemon(true);
+                                               return thread;
+                                           });
+        mPending = null;
+        mPendingStop = null;
+        mPlan = null;
+        mPlanPosition = 0;
+        mState = null;
+        mGame = null;
+        mWaitProgress = 0f;
+
+    }
+
+    /// Update the game by starting plans and carrying out finished ones.
+    /// \param gameManager game to update.
+    /// \param mousePos position at time of update.
+    /// \param delta time since last update.
+    public void update(GameManager gameManager, PVector mousePos, float delta) {
+
+        if (gameManager.gameIsOver()) {
+            return;
+        }
+
+        // Start planning as soon as units have settled so the plan is made while waiting.
+        // The wait counts time spent planning.
+        mWaitProgress += delta;
+        if (mPlan == null && mPending == null && !gameManager.hasBusyUnits()) {
+            startPlan(gameManager);
+        }
+        if (mPending != null) {
+            if (!mPending.isDone() && !gameManager.isHeadless()) {
+                return;
+            }
+            mPlan = finishPlan();
+            mPlanPosition = 0;
+        }
+
+        // Then finish waiting set period before carrying out actions. Headless games have
+        // no one watching so do not wait.
+        if (mWaitProgress < WAIT_DURATION && !gameManager.isHeadless()) {
+            return;
+        }
+
+        // Carry out planned actions until the plan runs out or an action has to wait
+        // for units to finish animating.
+        while (mPlan != null && !gameManager.gameIsOver() && !gameManager.hasBusyUnits()) {
+
+            long action = mPlan.get(mPlanPosition++);
+            Action.execute(gameManager, action);
+            if (mPlanPosition == mPlan.size()) {
+                mPlan = null;
+            }
+            if (Action.getKind(action) == Action.END_TURN) {
+                mWaitProgress = 0f;
+                return;
+            }
+
+        }
+
+    }
+
+    /// Stop any plan in progress and forget planned actions. Planning restarts from the
+    /// game's state on the next update.
+    public void cancel() {
+
+        if (mPending != null) {
+            mPendingStop.set(true);
+            mPending.cancel(true);
+            mPending = null;
+            mPendingStop = null;
+        }
+        mPlan = null;
+
+    }
+
+    /// Stop any plan in progress and the planning thread.
+    public void shutdown() {
+
+        cancel();
+        mExecutor.shutdown();
+
+    }
+
+    /// Start planning from a snapshot of the game.
+    private void startPlan(GameManager gameManager) {
+
+        if (mGame != gameManager) {
+            mState = new GameState(gameManager);
+            mGame = gameManager;
+        } else {
+            mState.read(gameManager);
+        }
+
+        // The snapshot and stop flag belong to the plan, so a cancelled plan still running
+        // cannot see later reads, and a stop made before the plan starts is still seen.
+        GameState snapshot = mState.copy();
+        AtomicBoolean stop = new AtomicBoolean();
+        mPendingStop = stop;
+        mPending = mExecutor.submit(() -> {
+            ActionList actions = new ActionList();
+            mPlanner.plan(snapshot, actions, stop);
+            return actions;
+        });
+
+    }
+
+    /// Get the actions of the finished plan, waiting for it if needed.
+    private ActionList finishPlan() {
+
+        try {
+            return mPending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Planning failed", e.getCause());
+        } finally {
+            mPending = null;
+            mPendingStop = null;
+        }
+
+    }
+
+}
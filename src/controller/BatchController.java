@@ -0,0 +1,174 @@
+package controller;
+
+import processing.core.PVector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import scene.GameManager;
+import grid.Grid;
+import unit.Unit;
+import simulation.GameState;
+import simulation.Action;
+import simulation.ActionList;
+import simulation.TurnPlanner;
+import random.Randomiser;
+
+/// Controller that plans each turn as one batch with a turn planner and carries it out with
+/// animations overlapping. An action only waits for the units it involves, so one unit can
+/// start moving while another is still animating. Moves also wait for attacks in progress to
+/// finish, as units they destroy block paths until they are removed.
+public class BatchController extends Controller implements Planner {
+
+    /// Duration to wait before acting.
+    private static final float WAIT_DURATION = 1f;
+
+    /// Planner used to plan turns.
+    private final TurnPlanner mPlanner;
+
+    /// Actions planned for the turn that have not yet been carried out.
+    private final ActionList mPlan;
+    private int mPlanPosition;
+
+    /// Units in attacks that may still be animating.
+    private final ArrayList<Unit> mFighting;
+
+    /// Snapshot of the game being controlled.
+    private GameState mState;
+
+    /// Game the snapshot was taken of.
+    private GameManager mGame;
+
+    /// Time passed waiting.
+    private float mWaitProgress;
+
+    /// Initialise controller.
+    /// \param randomiser random number generator to use for decisions.
+    public BatchController(Randomiser randomiser) {
+
+        mPlanner = new TurnPlanner(randomiser);
+        mPlan = new ActionList();
+        mPlanPosition = 0;
+        mFighting = new ArrayList<>();
+        mState = null;
+        mGame = null;
+        mWaitProgress = 0f;
+
+    }
+
+    /// Update the game by planning the turn and carrying out actions as their units are free.
+    /// \param gameManager game to update.
+    /// \param mousePos position at time of update.
+    /// \param delta time since last update.
+    public void update(GameManager gameManager, PVector mousePos, float delta) {
+
+        // First wait set period before carrying out actions. Headless games have
+        // no one watching so do not wait.
+        mWaitProgress += delta;
+        if (mWaitProgress < WAIT_DURATION && !gameManager.isHeadless()) {
+            return;
+        }
+
+        if (mPlanPosition == mPlan.size()) {
+            if (gameManager.hasBusyUnits()) {
+                return;
+            }
+            replan(gameManager);
+        }
+
+        // Carry out actions in order until one has to wait for its units. With instant
+        // resolution the whole turn is carried out in one update.
+        while (!gameManager.gameIsOver() && isReady(gameManager, mPlan.get(mPlanPosition))) {
+
+            long action = mPlan.get(mPlanPosition++);
+            if (Action.getKind(action) == Action.ATTACK) {
+                Grid grid = gameManager.getGrid();
+                mFighting.add(grid.getTile(Action.getSource(action)).getUnit());
+                mFighting.add(grid.getTile(Action.getTarget(action)).getUnit());
+            }
+            Action.execute(gameManager, action);
+            if (Action.getKind(action) == Action.END_TURN) {
+                mPlan.clear();
+                mPlanPosition = 0;
+                mFighting.clear();
+                mWaitProgress = 0f;
+                return;
+            }
+
+        }
+
+    }
+
+    /// Plan the rest of the active player's turn in a state. Planning a turn is quick so it
+    /// is never stopped early.
+    /// \param state snapshot to plan from.
+    /// \param actions list to add the turn's actions to.
+    /// \param stop ignored.
+    public void plan(GameState state, ActionList actions, AtomicBoolean stop) {
+        mPlanner.plan(state, actions);
+    }
+
+    /// Forget planned actions. Planning restarts from the game's state on the next update.
+    public void cancel() {
+
+        mPlan.clear();
+        mPlanPosition = 0;
+        mFighting.clear();
+
+    }
+
+    /// Replace the plan with one for a snapshot of the game.
+    /// \param gameManager game to plan actions in.
+    private void replan(GameManager gameManager) {
+
+        if (mGame != gameManager) {
+            mState = new GameState(gameManager);
+            mGame = gameManager;
+        } else {
+            mState.read(gameManager);
+        }
+
+        mPlan.clear();
+        mPlanPosition = 0;
+        mFighting.clear();
+        plan(mState, mPlan, new AtomicBoolean());
+
+    }
+
+    /// Check whether the units an action involves are free for it to be carried out.
+    private boolean isReady(GameManager gameManager, long action) {
+
+        Grid grid = gameManager.getGrid();
+        int kind = Action.getKind(action);
+        if (kind == Action.END_TURN) {
+            return !gameManager.hasBusyUnits();
+        }
+        if (kind == Action.MOVE && !isFightingOver()) {
+            return false;
+        }
+        if (!isFree(grid.getTile(Action.getSource(action)).getUnit())) {
+            return false;
+        }
+        return kind == Action.CAPTURE || isFree(grid.getTile(Action.getTarget(action)).getUnit());
+
+    }
+
+    /// Check whether every attack carried out has finished.
+    private boolean isFightingOver() {
+
+        Iterator<Unit> it = mFighting.iterator();
+        while (it.hasNext()) {
+            if (it.next().isBusy()) {
+                return false;
+            }
+            it.remove();
+        }
+        return true;
+
+    }
+
+    /// Check whether a tile has no unit or one that is not animating.
+    private static boolean isFree(Unit unit) {
+        return unit == null || !unit.isBusy();
+    }
+
+}
@@ -17,4 +17,8 @@ public abstract class Controller {
     /// \param delta time since last update.
     public abstract void update(GameManager gameManager, PVector mousePos, float delta);
 
+    /// Stop any work in progress for the game, such as when it is paused or left. Work is
+    /// restarted by the next update.
+    public void cancel() {}
+
 }
@@ -0,0 +1,181 @@
+package controller;
+
+import processing.core.PVector;
+import java.lang.Math;
+import java.lang.System;
+import java.util.concurrent.atomic.AtomicBoolean;
+import scene.GameManager;
+import simulation.GameState;
+import simulation.Action;
+import simulation.ActionList;
+import simulation.MonteCarloSearch;
+import random.Randomiser;
+
+/// Controller that plans turns with a parallel Monte Carlo tree search. Each turn has a fixed
+/// time budget. A search spends half of what is left of it and the most visited line of the
+/// turn is carried out, searching again from the resulting state if the line ends before the
+/// turn does.
+public class MctsController extends Controller implements Planner {
+
+    /// Duration to wait before acting.
+    private static final float WAIT_DURATION = 1f;
+
+    /// Default milliseconds of search for each turn.
+    public static final long DEFAULT_TURN_BUDGET = 2000;
+
+    /// Milliseconds each search runs for at least.
+    private static final long MIN_SEARCH_BUDGET = 20;
+
+    /// Number of visits a planned action needs to be carried out without searching again.
+    private static final int MIN_PLAN_VISITS = 50;
+
+    /// Milliseconds of search for each turn.
+    private final long mTurnBudget;
+
+    /// Search used to plan turns.
+    private final MonteCarloSearch mSearch;
+
+    /// Random number generator that search generators are split from.
+    private final Randomiser mRandomiser;
+
+    /// Actions planned by the last search that have not yet been carried out.
+    private final ActionList mPlan;
+    private int mPlanPosition;
+
+    /// Snapshot of the game being controlled.
+    private GameState mState;
+
+    /// Game the snapshot was taken of.
+    private GameManager mGame;
+
+    /// Time passed waiting.
+    private float mWaitProgress;
+
+    /// Turn that is being planned.
+    private int mPlanTurn;
+
+    /// Time the planned turn's search budget runs out.
+    private long mTurnDeadline;
+
+    /// Total playouts and nanoseconds spent searching.
+    private long mRollouts;
+    private long mElapsed;
+
+    /// Initialise controller with the default budget on one thread.
+    /// \param randomiser random number generator to use for playouts.
+    public MctsController(Randomiser randomiser) {
+        this(randomiser, DEFAULT_TURN_BUDGET, 1);
+    }
+
+    /// Initialise controller.
+    /// \param randomiser random number generator to use for playouts.
+    /// \param turnBudget milliseconds of search for each turn.
+    /// \param threads number of threads to search with.
+    public MctsController(Randomiser randomiser, long turnBudget, int threads) {
+
+        mRandomiser = randomiser;
+        mTurnBudget = turnBudget;
+        mSearch = new MonteCarloSearch(threads);
+        mPlan = new ActionList();
+        mPlanPosition = 0;
+        mState = null;
+        mGame = null;
+        mWaitProgress = 0f;
+        mPlanTurn = -1;
+        mTurnDeadline = 0;
+        mRollouts = 0;
+        mElapsed = 0;
+
+    }
+
+    /// Update the game by planning and carrying out actions.
+    /// \param gameManager game to update.
+    /// \param mousePos position at time of update.
+    /// \param delta time since last update.
+    public void update(GameManager gameManager, PVector mousePos, float delta) {
+
+        // First wait set period before carrying out actions. Headless games have
+        // no one watching so do not wait.
+        mWaitProgress += delta;
+        if (mWaitProgress < WAIT_DURATION && !gameManager.isHeadless()) {
+            return;
+        }
+
+        // Carry out planned actions until the turn ends or an action has to wait for
+        // units to finish animating, searching again whenever the plan runs out.
+        while (!gameManager.gameIsOver() && !gameManager.hasBusyUnits()) {
+
+            if (mPlanPosition == mPlan.size()) {
+                replan(gameManager);
+            }
+            long action = mPlan.get(mPlanPosition++);
+            Action.execute(gameManager, action);
+            if (Action.getKind(action) == Action.END_TURN) {
+                mPlan.clear();
+                mPlanPosition = 0;
+                mWaitProgress = 0f;
+                return;
+            }
+
+        }
+
+    }
+
+    /// Plan the most visited line of the active player's turn in a state. The turn's budget
+    /// starts when it is first planned.
+    /// \param state snapshot to plan from.
+    /// \param actions list to add the line to.
+    /// \param stop set by another thread to stop the search.
+    public void plan(GameState state, ActionList actions, AtomicBoolean stop) {
+
+        if (state.getTurn() != mPlanTurn) {
+            mPlanTurn = state.getTurn();
+            mTurnDeadline = System.nanoTime() + mTurnBudget * 1000000L;
+        }
+        long remaining = mTurnDeadline - System.nanoTime();
+        long budget = Math.max(MIN_SEARCH_BUDGET * 1000000L, remaining / 2);
+        mSearch.search(state, budget, mRandomiser, stop);
+        mRollouts += mSearch.getRollouts();
+        mElapsed += mSearch.getElapsedNanos();
+        mSearch.getPlan(actions, MIN_PLAN_VISITS);
+
+    }
+
+    /// Get the total number of playouts.
+    public long getRollouts() {
+        return mRollouts;
+    }
+
+    /// Get the total time spent searching in nanoseconds.
+    public long getElapsedNanos() {
+        return mElapsed;
+    }
+
+    /// Get the average number of playouts per second of search.
+    public float getRolloutsPerSecond() {
+        return (mElapsed > 0) ? mRollouts * 1e9f / mElapsed : 0f;
+    }
+
+    /// Stop the search threads once they are idle.
+    public void shutdown() {
+        mSearch.shutdown();
+    }
+
+    /// Replace the plan with one for a snapshot of the game.
+    /// \param gameManager game to plan actions in.
+    private void replan(GameManager gameManager) {
+
+        if (mGame != gameManager) {
+            mState = new GameState(gameManager);
+            mGame = gameManager;
+        } else {
+            mState.read(gameManager);
+        }
+
+        mPlan.clear();
+        mPlanPosition = 0;
+        plan(mState, mPlan, new AtomicBoolean());
+
+    }
+
+}
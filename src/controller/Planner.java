@@ -0,0 +1,21 @@
+package controller;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import simulation.GameState;
+import simulation.ActionList;
+
+/// Source of actions planned from snapshots of a game rather than the game itself, so planning
+/// can run away from the thread the game is updated on.
+public interface Planner {
+
+    /// Plan actions for the active player of a state.
+    /// \param state snapshot to plan from, owned by the planner until it returns.
+    /// \param actions list to add actions to in the order to carry them out. At least one action
+    ///                is added, and planning continues from the resulting state if the last
+    ///                action does not end the turn.
+    /// \param stop set by another thread to ask the plan to finish as soon as possible. The
+    ///             actions it returns are then discarded. Each plan has its own flag, so a stop
+    ///             can never be missed or carried over to a later plan.
+    void plan(GameState state, ActionList actions, AtomicBoolean stop);
+
+}
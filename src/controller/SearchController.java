@@ -0,0 +1,144 @@
+package controller;
+
+import processing.core.PVector;
+import java.util.concurrent.atomic.AtomicBoolean;
+import scene.GameManager;
+import simulation.GameState;
+import simulation.Action;
+import simulation.ActionList;
+import simulation.AlphaBetaSearch;
+
+/// Controller that chooses each action with an iterative deepening alpha-beta search of a
+/// snapshot of the game, keeping count of the nodes searched and time taken so search speed
+/// can be compared across machines and against other controllers.
+public class SearchController extends Controller implements Planner {
+
+    /// Duration to wait before acting.
+    private static final float WAIT_DURATION = 1f;
+
+    // Default budgets of each search.
+    public static final long DEFAULT_NODE_BUDGET = 20000;
+    public static final long DEFAULT_TIME_BUDGET = 1000;
+
+    /// Number of nodes after which each search stops.
+    private final long mNodeBudget;
+
+    /// Milliseconds after which each search stops or 0 for no limit.
+    private final long mTimeBudget;
+
+    /// Search used to choose actions.
+    private final AlphaBetaSearch mSearch;
+
+    /// Snapshot of the game being controlled.
+    private GameState mState;
+
+    /// Game the snapshot was taken of.
+    private GameManager mGame;
+
+    /// Scratch list for planned actions.
+    private final ActionList mPlan;
+
+    /// Time passed waiting.
+    private float mWaitProgress;
+
+    /// Total nodes searched and nanoseconds spent searching.
+    private long mNodes;
+    private long mElapsed;
+
+    /// Initialise controller with default budgets.
+    public SearchController() {
+        this(DEFAULT_NODE_BUDGET, DEFAULT_TIME_BUDGET);
+    }
+
+    /// Initialise controller.
+    /// \param nodeBudget number of nodes after which each search stops.
+    /// \param timeBudget milliseconds after which each search stops or 0 for no limit.
+    public SearchController(long nodeBudget, long timeBudget) {
+
+        mNodeBudget = nodeBudget;
+        mTimeBudget = timeBudget;
+        mSearch = new AlphaBetaSearch();
+        mState = null;
+        mGame = null;
+        mPlan = new ActionList();
+        mWaitProgress = 0f;
+        mNodes = 0;
+        mElapsed = 0;
+
+    }
+
+    /// Update the game by searching for actions.
+    /// \param gameManager game to update.
+    /// \param mousePos position at time of update.
+    /// \param delta time since last update.
+    public void update(GameManager gameManager, PVector mousePos, float delta) {
+
+        // First wait set period before carrying out actions. Headless games have
+        // no one watching so do not wait.
+        mWaitProgress += delta;
+        if (mWaitProgress < WAIT_DURATION && !gameManager.isHeadless()) {
+            return;
+        }
+
+        // Carry out actions until the turn ends or an action has to wait for units
+        // to finish animating. With instant resolution the whole turn is carried out
+        // in one update.
+        while (!gameManager.gameIsOver() && !gameManager.hasBusyUnits()) {
+
+            long action = chooseAction(gameManager);
+            Action.execute(gameManager, action);
+            if (Action.getKind(action) == Action.END_TURN) {
+                mWaitProgress = 0f;
+                return;
+            }
+
+        }
+
+    }
+
+    /// Plan the best action for the active player of a state.
+    /// \param state snapshot to plan from.
+    /// \param actions list to add the action to.
+    /// \param stop set by another thread to stop the search.
+    public void plan(GameState state, ActionList actions, AtomicBoolean stop) {
+
+        actions.add(mSearch.search(state, mNodeBudget, mTimeBudget * 1000000L, stop));
+        mNodes += mSearch.getNodes();
+        mElapsed += mSearch.getElapsedNanos();
+
+    }
+
+    /// Get the total number of nodes searched.
+    public long getNodes() {
+        return mNodes;
+    }
+
+    /// Get the total time spent searching in nanoseconds.
+    public long getElapsedNanos() {
+        return mElapsed;
+    }
+
+    /// Get the average number of nodes searched per second.
+    public float getNodesPerSecond() {
+        return (mElapsed > 0) ? mNodes * 1e9f / mElapsed : 0f;
+    }
+
+    /// Search a snapshot of the game for the best action.
+    /// \param gameManager game to choose an action in.
+    /// \return the chosen action.
+    private long chooseAction(GameManager gameManager) {
+
+        if (mGame != gameManager) {
+            mState = new GameState(gameManager);
+            mGame = gameManager;
+        } else {
+            mState.read(gameManager);
+        }
+
+        mPlan.clear();
+        plan(mState, mPlan, new AtomicBoolean());
+        return mPlan.get(0);
+
+    }
+
+}
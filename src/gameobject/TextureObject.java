@@ -3,21 +3,25 @@ package gameobject;
 import processing.core.PImage;
 import processing.core.PVector;
 import processing.core.PApplet;
+import processing.core.PGraphics;
 import transform.Transformable;
 import texture.Texture;
 import rect.Rect;
 
-/// A game object that displays a texture.
+/// A game object that displays a texture. Objects created without a texture are
+/// headless: they have no size and render nothing, allowing game logic built on
+/// them to run without loading any images.
 public class TextureObject extends RenderableObject {
     
-    /// The texture displayed by this object. 
+    /// The texture displayed by this object or null if headless. 
     private final Texture mTexture;
 
     /// The current clip index used for drawing the texture.
     private int mClipIndex;
 
     /// Initialise texture.
-    /// \param texture the texture to use for displaying this object.
+    /// \param texture the texture to use for displaying this object, or null
+    ///        for a headless object.
     public TextureObject(Texture texture) {
 
         mTexture = texture;
@@ -30,7 +34,31 @@ public class TextureObject extends RenderableObject {
 
     public void renderCurrent(PApplet core) {
 
-        mTexture.render(core, mClipIndex);
+        if (mTexture != null) {
+            mTexture.render(core, mClipIndex);
+        }
+
+    }
+
+    /// Render using the object's transformation into an offscreen graphics buffer.
+    /// \param graphics graphics to render into.
+    public void render(PGraphics graphics) {
+
+        if (mTexture == null) {
+            return;
+        }
+        graphics.pushMatrix();
+        applyTransform(graphics);
+        mTexture.render(graphics, mClipIndex);
+        graphics.popMatrix();
+
+    }
+
+    /// Check whether the object has a texture to display.
+    /// \return false if the object is headless.
+    public boolean hasTexture() {
+
+        return mTexture != null;
 
     }
 
@@ -39,6 +67,9 @@ public class TextureObject extends RenderableObject {
     ///         object's current x axis scaling.
     public float getWidth() {
 
+        if (mTexture == null) {
+            return 0f;
+        }
         return mTexture.getWidth(mClipIndex) * Math.abs(getXScale());
 
     }
@@ -48,6 +79,9 @@ public class TextureObject extends RenderableObject {
     ///         object's current y axis scaling.
     public float getHeight() {
 
+        if (mTexture == null) {
+            return 0f;
+        }
         return mTexture.getHeight(mClipIndex) * Math.abs(getYScale());
 
     }
@@ -67,6 +101,9 @@ public class TextureObject extends RenderableObject {
     /// \return the number of clips the texture has.
     protected int getClipCount() {
 
+        if (mTexture == null) {
+            return 0;
+        }
         return mTexture.getClipCount();
 
     }
@@ -74,7 +111,7 @@ public class TextureObject extends RenderableObject {
     /// Get transformed clip (Does not include rotation).
     public Rect getBounds() {
         
-        Rect bounds = mTexture.getClip(mClipIndex);
+        Rect bounds = (mTexture == null) ? new Rect(0f, 0f, 0f, 0f) : mTexture.getClip(mClipIndex);
         bounds.x = 0f;
         bounds.y = 0f;
         bounds.transform(this);
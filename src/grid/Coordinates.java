@@ -61,9 +61,13 @@ public final class Coordinates {
 
     }
 
+    /// Get a hash of the coordinates. Packing x into the high 16 bits and y into the low 16 bits
+    /// is unique for grid coordinates and the multiply and shift are invertible, so different
+    /// coordinates on a grid never share a hash.
     public int hashCode() {
 
-        return x * -2 + y * 3;
+        int h = ((x << 16) | (y & 0xFFFF)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
 
     }
 
@@ -0,0 +1,171 @@
+package grid;
+
+import java.lang.Integer;
+import java.lang.Math;
+import java.util.ArrayList;
+import java.util.Arrays;
+import collection.LongMinHeap;
+import terrain.Terrain;
+import unit.Unit;
+
+/// Move cost from every tile to the nearest of a set of targets, found with one reverse
+/// multi-source Dijkstra search. A unit heads for the nearest target by moving to whichever
+/// reachable tile has the lowest cost, so any number of units can share one field.
+public final class FlowField {
+
+    /// Player id that makes a field ignore units.
+    public static final int IGNORE_UNITS = 0;
+
+    /// Width of the grid.
+    private final int mWidth;
+
+    /// Cost from each tile indexed by y * width + x, Grid.UNREACHABLE if no target can be reached.
+    private final int[] mCosts;
+
+    /// Compute a field over a grid.
+    /// \param grid grid to compute field over.
+    /// \param moveType move type of units following the field.
+    /// \param targets coordinates of targets.
+    /// \param player id of player whose units follow the field. Units of other players block
+    ///               movement. IGNORE_UNITS to consider terrain alone.
+    public FlowField(Grid grid, int moveType, ArrayList<Coordinates> targets, int player) {
+
+        int[] targetIndices = new int[targets.size()];
+        for (int i = 0; i < targetIndices.length; ++i) {
+            targetIndices[i] = grid.getIndex(targets.get(i));
+        }
+        mWidth = grid.getWidth();
+        mCosts = computeCosts(grid, moveType, targetIndices, player);
+
+    }
+
+    /// Compute a field to a single target ignoring units.
+    /// \param grid grid to compute field over.
+    /// \param moveType move type of units following the field.
+    /// \param target index of target tile.
+    FlowField(Grid grid, int moveType, int target) {
+
+        mWidth = grid.getWidth();
+        mCosts = computeCosts(grid, moveType, new int[] {target}, IGNORE_UNITS);
+
+    }
+
+    /// Get the cost from a tile to the nearest target.
+    /// \return the move cost or Grid.UNREACHABLE if no target can be reached.
+    public int getCost(Coordinates coords) {
+        return mCosts[coords.y * mWidth + coords.x];
+    }
+
+    /// Get the cost from a tile to the nearest target.
+    /// \param index index of the tile.
+    /// \return the move cost or Grid.UNREACHABLE if no target can be reached.
+    public int getCost(int index) {
+        return mCosts[index];
+    }
+
+    /// Get the costs from every tile indexed by y * width + x.
+    int[] getCosts() {
+        return mCosts;
+    }
+
+    /// Compute costs with a reverse Dijkstra search from every target. Stepping from a tile onto a
+    /// neighbour costs the neighbour's move cost, so searching backwards a tile's cost is the
+    /// neighbour's cost plus the neighbour's move cost. Targets themselves can always be reached,
+    /// even if occupied, so units head for tiles next to enemy HQs.
+    /// \param offsets start of each tile's neighbours in the neighbour array, plus the end.
+    /// \param neighbours indices of the neighbours of every tile.
+    /// \param tiles move costs and blocking of each tile.
+    /// \param targets indices of target tiles.
+    /// \param targetCount number of targets used from the start of the array.
+    /// \param maxCost cost given to tiles further away or unable to reach a target.
+    /// \return cost from each tile, at most maxCost.
+    public static int[] computeCosts(int[] offsets, int[] neighbours, Tiles tiles, int[] targets,
+                                     int targetCount, int maxCost) {
+
+        int[] costs = new int[offsets.length - 1];
+        Arrays.fill(costs, maxCost);
+
+        // Heap entries are cost << 32 | index, stale entries are skipped when popped.
+        LongMinHeap heap = new LongMinHeap(targetCount);
+        for (int t = 0; t < targetCount; ++t) {
+            if (costs[targets[t]] != 0) {
+                costs[targets[t]] = 0;
+                heap.push(targets[t]);
+            }
+        }
+        while (!heap.isEmpty()) {
+
+            long top = heap.pop();
+            int current = (int)top;
+            int cost = (int)(top >>> 32);
+            if (cost > costs[current]) {
+                continue;
+            }
+
+            // Only tiles that can be entered can be stepped onto from a neighbour.
+            int moveCost = tiles.getMoveCost(current);
+            if (moveCost < 0 || (cost > 0 && tiles.isBlocked(current))) {
+                continue;
+            }
+            int neighbourCost = (int)Math.min(maxCost, (long)cost + moveCost);
+            for (int i = offsets[current]; i < offsets[current + 1]; ++i) {
+
+                int neighbour = neighbours[i];
+                if (neighbourCost < costs[neighbour]) {
+                    costs[neighbour] = neighbourCost;
+                    heap.push(((long)neighbourCost << 32) | neighbour);
+                }
+
+            }
+
+        }
+        return costs;
+
+    }
+
+    /// Compute costs over a grid.
+    private static int[] computeCosts(Grid grid, int moveType, int[] targets, int player) {
+
+        Tiles tiles = new Tiles() {
+
+            public int getMoveCost(int index) {
+
+                Terrain terrain = grid.getTile(index).getTerrain();
+                return terrain.isPassable(moveType) ? terrain.getMoveCost(moveType) : -1;
+
+            }
+
+            public boolean isBlocked(int index) {
+
+                Unit unit = grid.getTile(index).getUnit();
+                return player != IGNORE_UNITS && unit != null && unit.getPlayer() != player;
+
+            }
+
+        };
+        int[] costs = computeCosts(grid.getNeighbourOffsets(), grid.getNeighbours(), tiles,
+                                   targets, targets.length, Integer.MAX_VALUE);
+        for (int i = 0; i < costs.length; ++i) {
+            if (costs[i] == Integer.MAX_VALUE) {
+                costs[i] = Grid.UNREACHABLE;
+            }
+        }
+        return costs;
+
+    }
+
+    /// Move costs and blocking of each tile searched by computeCosts.
+    public interface Tiles {
+
+        /// Get the cost of entering a tile.
+        /// \param index index of the tile.
+        /// \return the move cost or a negative value if the tile cannot be entered.
+        int getMoveCost(int index);
+
+        /// Check whether a unit on a tile blocks units passing through it.
+        /// \param index index of the tile.
+        boolean isBlocked(int index);
+
+    }
+
+}
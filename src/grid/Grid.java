@@ -1,126 +1,550 @@
 package grid;
 
-import java.util.Iterator;
+import java.lang.Math;
+import java.lang.System;
 import java.util.ArrayList;
+import java.util.Arrays;
 import gameobject.RenderableObject;
+import gameobject.TextureObject;
+import texture.Texture;
 import processing.core.PApplet;
+import processing.core.PGraphics;
 import processing.core.PVector;
+import unit.Unit;
 import config.Config;
+import collection.IntIntMap;
+import collection.IntObjectMap;
 
 
 /// Grid of tiles.
+///
+/// Tiles are stored in a flat array indexed by y * width + x. Tile positions are derived from
+/// their coordinates rather than stored, and the grid's origin acts as a camera: only the window
+/// of tiles around it that fits in the view is updated, drawn or hit tested, so the cost per frame
+/// does not grow with the size of the grid.
 public class Grid extends RenderableObject {
 
-    /// Grid size.
-    private static int GRID_LENGTH = 10;
-    private static float TILE_SIZE = 75f;
+    /// Number of tiles along each axis of a grid not given a size.
+    public static final int DEFAULT_LENGTH = 10;
 
-    /// Tiles making up the grid.
-    private final Tile[][] mTiles;
+    /// Width and height of each tile.
+    public static final float TILE_SIZE = 75f;
+
+    /// Size of the area of the window the grid is viewed in, placed at the bottom of the window.
+    private static final float VIEW_WIDTH = Config.WINDOW_WIDTH;
+    private static final float VIEW_HEIGHT = DEFAULT_LENGTH * TILE_SIZE;
+
+    /// Distance between tiles with no path between them.
+    public static final int UNREACHABLE = -1;
+
+    /// Number of costs kept across cached distance tables, 16 MB. Small grids keep a table for
+    /// every target while a 1000x1000 grid keeps the four most recently used.
+    private static final int MAX_CACHED_DISTANCES = 1 << 22;
+
+    /// Number of tiles along the x axis.
+    private final int mWidth;
+
+    /// Number of tiles along the y axis.
+    private final int mHeight;
+
+    /// Tiles making up the grid indexed by y * width + x.
+    private final Tile[] mTiles;
+
+    /// Overlay drawn over selectable tiles.
+    private final TextureObject mSelect;
+
+    /// Overlay drawn over the highlighted tile.
+    private final TextureObject mHighlight;
+
+    /// Indices of tiles with units, in no particular order.
+    private int[] mOccupied;
+    private int mOccupiedCount;
+
+    /// Position of each tile in mOccupied or -1 if the tile has no unit.
+    private final int[] mOccupiedSlot;
+
+    /// Copy of mOccupied that updates iterate over, so units can be added and removed while
+    /// updating.
+    private int[] mUpdating;
+
+    /// First and last columns and rows of tiles in view, updated before each use.
+    private int mViewMinX;
+    private int mViewMaxX;
+    private int mViewMinY;
+    private int mViewMaxY;
+
+    /// Terrain move cost from every tile to a target tile, keyed by target index * move type
+    /// count + move type and indexed by start index (y * width + x). Each table is computed the
+    /// first time its target is queried, so only targets actually asked about take memory.
+    private final IntObjectMap<int[]> mDistances;
+
+    /// Last use of each table in mDistances, counted in queries.
+    private final IntIntMap mDistanceUses;
+
+    /// Number of distance queries made, used to order mDistanceUses.
+    private int mDistanceQueries;
+
+    /// Number of tables mDistances keeps before the least recently used one is dropped.
+    private final int mDistanceCapacity;
+
+    /// Start of each tile's neighbours in mNeighbours, indexed by tile index with an extra entry
+    /// marking the end of the last tile's neighbours.
+    private int[] mNeighbourOffsets;
+
+    /// Indices of the neighbours of each tile in left, right, up, down order.
+    private int[] mNeighbours;
+
+    /// Number of times units or building owners on the grid have changed. Results that depend on
+    /// the board can be cached until the count changes.
+    private long mModificationCount;
+
+    /// Number of times tiles or buildings on the grid have changed.
+    private long mTerrainModificationCount;
+
+    /// Terrain and buildings of the tiles in view, drawn offscreen once and then drawn as a single
+    /// image each frame until they change or the view moves onto different tiles. Null until
+    /// first rendered.
+    private PGraphics mTerrainLayer;
+
+    /// Terrain modification count the terrain layer was drawn at.
+    private long mLayerVersion;
+
+    /// First and last columns and rows of tiles drawn in the terrain layer.
+    private int mLayerMinX;
+    private int mLayerMaxX;
+    private int mLayerMinY;
+    private int mLayerMaxY;
 
     /// Initialise grid.
-    public Grid() {
+    /// \param width number of tiles along the x axis.
+    /// \param height number of tiles along the y axis.
+    /// \param select texture for selectable tiles or null if headless.
+    /// \param highlight texture for the highlighted tile or null if headless.
+    public Grid(int width, int height, Texture select, Texture highlight) {
+
+        assert width > 0 && height > 0 && width < (1 << 15) && height < (1 << 15);
+        mWidth = width;
+        mHeight = height;
+        mTiles = new Tile[width * height];
+        mSelect = new TextureObject(select);
+        mHighlight = new TextureObject(highlight);
 
-        mTiles = new Tile[GRID_LENGTH][GRID_LENGTH];
-        setTranslation(Config.WINDOW_WIDTH / 2f, Config.WINDOW_HEIGHT - (TILE_SIZE * mTiles[0].length / 2f));
+        mOccupied = new int[16];
+        mOccupiedCount = 0;
+        mOccupiedSlot = new int[width * height];
+        Arrays.fill(mOccupiedSlot, -1);
+        mUpdating = new int[16];
+
+        mDistances = new IntObjectMap<>();
+        mDistanceUses = new IntIntMap();
+        mDistanceQueries = 0;
+        mDistanceCapacity = Math.max(1, MAX_CACHED_DISTANCES / (width * height));
+        mNeighbourOffsets = null;
+        mNeighbours = null;
+        mModificationCount = 0;
+        mTerrainModificationCount = 0;
+        mTerrainLayer = null;
+        mLayerVersion = 0;
+        setTranslation(Config.WINDOW_WIDTH / 2f, Config.WINDOW_HEIGHT - (VIEW_HEIGHT / 2f));
+
+    }
+
+    /// Get the number of tiles along the x axis.
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /// Get the number of tiles along the y axis.
+    public int getHeight() {
+        return mHeight;
+    }
 
+    /// Get the total number of tiles.
+    public int getTileCount() {
+        return mTiles.length;
+    }
+
+    /// Get the index of the tile at a position. Tiles are indexed by y * width + x.
+    public int getIndex(int x, int y) {
+        return y * mWidth + x;
+    }
+
+    /// Get the index of the tile at coordinates.
+    public int getIndex(Coordinates coords) {
+        return coords.y * mWidth + coords.x;
+    }
+
+    /// Get the x coordinate of a tile index.
+    public int getX(int index) {
+        return index % mWidth;
+    }
+
+    /// Get the y coordinate of a tile index.
+    public int getY(int index) {
+        return index / mWidth;
+    }
+
+    /// Get the coordinates of a tile index.
+    public Coordinates getCoords(int index) {
+        return new Coordinates(getX(index), getY(index));
+    }
+
+    /// Get tile at an index.
+    public Tile getTile(int index) {
+        return mTiles[index];
     }
 
     /// Get tile at specified coordinates.
     public Tile getTile(Coordinates coords) {
-        return mTiles[coords.x][coords.y];
+        return mTiles[coords.y * mWidth + coords.x];
+    }
+
+    /// Get tile at specified position.
+    public Tile getTile(int x, int y) {
+        return mTiles[y * mWidth + x];
     }
 
     /// Set tile at specified coordinates.
     public void setTile(Coordinates coords, Tile tile) {
-        mTiles[coords.x][coords.y] = tile;
+
+        int index = getIndex(coords);
+        mTiles[index] = tile;
+        tile.setGrid(this);
+        updateOccupied(index, tile.getUnit() != null);
+        mDistances.clear();
+        mDistanceUses.clear();
+        mNeighbourOffsets = null;
+        mNeighbours = null;
+        markModified();
+        markTerrainModified();
+
     }
 
-    /// Get tile that is at target position.
+    /// Get tile that is at target position by mapping the position back through the grid's
+    /// translation, scale and camera to a column and row. Tiles are TILE_SIZE apart and cover the
+    /// space between them, so no tile bounds need checking.
+    /// \param pos position in the window.
+    /// \return the tile or null if the position is outside the view or the grid.
     public Tile getTile(PVector pos) {
 
-        Tile selected = null;
-        for (int i = 0; selected == null && i < mTiles.length; ++i) {
-            for (int j = 0; selected == null && j < mTiles[0].length; ++j) {
-                if (mTiles[i][j].getBounds().transform(this).contains(pos)) {
-                    selected = mTiles[i][j];
-                }
-            }
+        float viewX = pos.x - getXTranslation();
+        float viewY = pos.y - getYTranslation();
+        if (viewX < -VIEW_WIDTH / 2f || viewX >= VIEW_WIDTH / 2f ||
+            viewY < -VIEW_HEIGHT / 2f || viewY >= VIEW_HEIGHT / 2f) {
+            return null;
+        }
+
+        float x = (viewX / getXScale() + getXOrigin()) / TILE_SIZE + mWidth / 2f;
+        float y = (viewY / getYScale() + getYOrigin()) / TILE_SIZE + mHeight / 2f;
+        if (x < 0f || x >= mWidth || y < 0f || y >= mHeight) {
+            return null;
         }
-        return selected;
+        return getTile((int)x, (int)y);
 
     }
 
-    /// Update the all the tiles in the grid.
+    /// Update the units on the grid.
     public void update(float delta) {
 
-        for (int i = 0; i < mTiles.length; ++i) {
-            for (int j = 0; j < mTiles[0].length; ++j) {
-                mTiles[i][j].update(delta);
-            }
+        if (mUpdating.length < mOccupiedCount) {
+            mUpdating = new int[mOccupied.length];
+        }
+        int count = mOccupiedCount;
+        System.arraycopy(mOccupied, 0, mUpdating, 0, count);
+        for (int i = 0; i < count; ++i) {
+            mTiles[mUpdating[i]].update(delta);
+        }
+
+        // An attack can finish after its defender's tile has updated, so remove destroyed units
+        // again to leave none behind once nothing is busy.
+        for (int i = 0; i < count; ++i) {
+            mTiles[mUpdating[i]].removeDestroyed();
         }
 
     }
     
-    /// Render each tile then the units on those tiles.
+    /// Render the terrain layer, the overlays of each tile in view then the units on those
+    /// tiles.
     public void renderCurrent(PApplet core) {
 
-        for (int i = 0; i < mTiles.length; ++i) {
-            for (int j = 0; j < mTiles[0].length; ++j) {
-                mTiles[i][j].render(core);
+        updateView();
+        if (mTerrainLayer == null || mLayerVersion != mTerrainModificationCount ||
+            mLayerMinX != mViewMinX || mLayerMaxX != mViewMaxX ||
+            mLayerMinY != mViewMinY || mLayerMaxY != mViewMaxY) {
+            renderTerrainLayer(core);
+        }
+        core.image(mTerrainLayer, getTileXTranslation(mLayerMinX) - TILE_SIZE / 2f,
+                   getTileYTranslation(mLayerMinY) - TILE_SIZE / 2f);
+
+        for (int x = mViewMinX; x <= mViewMaxX; ++x) {
+            for (int y = mViewMinY; y <= mViewMaxY; ++y) {
+                getTile(x, y).renderOverlays(core);
             }
         }
-        for (int i = 0; i < mTiles.length; ++i) {
-            for (int j = 0; j < mTiles[0].length; ++j) {
-                mTiles[i][j].renderUnit(core);
+        for (int x = mViewMinX; x <= mViewMaxX; ++x) {
+            for (int y = mViewMinY; y <= mViewMaxY; ++y) {
+                getTile(x, y).renderUnit(core);
             }
         }
 
     }
 
+    /// Get the x translation of tiles in a column relative to the centre of the grid.
+    public float getTileXTranslation(int x) {
+        return (x - (mWidth - 1) / 2f) * TILE_SIZE;
+    }
+
+    /// Get the y translation of tiles in a row relative to the centre of the grid.
+    public float getTileYTranslation(int y) {
+        return (y - (mHeight - 1) / 2f) * TILE_SIZE;
+    }
+
+    /// Get the x position relative to the centre of the grid at the centre of the view.
+    public float getCameraX() {
+        return getXOrigin();
+    }
+
+    /// Get the y position relative to the centre of the grid at the centre of the view.
+    public float getCameraY() {
+        return getYOrigin();
+    }
+
+    /// Centre the view on a position, keeping the view within the grid where it is large enough.
+    /// \param x x position relative to the centre of the grid.
+    /// \param y y position relative to the centre of the grid.
+    public void setCamera(float x, float y) {
+
+        float xLimit = Math.max(0f, (mWidth * TILE_SIZE - VIEW_WIDTH / getXScale()) / 2f);
+        float yLimit = Math.max(0f, (mHeight * TILE_SIZE - VIEW_HEIGHT / getYScale()) / 2f);
+        setOrigin(Math.max(-xLimit, Math.min(xLimit, x)), Math.max(-yLimit, Math.min(yLimit, y)));
+
+    }
+
+    /// Move the view across the grid.
+    /// \param x distance to move along the x axis.
+    /// \param y distance to move along the y axis.
+    public void moveCamera(float x, float y) {
+        setCamera(getCameraX() + x, getCameraY() + y);
+    }
 
     /// Get the coordinates of tiles neighbouring specified position.
     public ArrayList<Coordinates> getNeighbourCoords(Coordinates coords) {
 
-        ArrayList<Coordinates> neighbours = new ArrayList<Coordinates>();
+        int[] offsets = getNeighbourOffsets();
+        int[] neighbours = getNeighbours();
+        int index = getIndex(coords);
+        ArrayList<Coordinates> result = new ArrayList<Coordinates>(4);
+        for (int i = offsets[index]; i < offsets[index + 1]; ++i) {
+            result.add(getCoords(neighbours[i]));
+        }
+        return result;
+
+    }
 
-        boolean left = coords.x > 0;
-        boolean right = coords.x < (mTiles.length - 1);
-        boolean upper = coords.y > 0;
-        boolean lower = coords.y < (mTiles[0].length - 1);
+    /// Get the start of each tile's neighbours in the neighbours array. The neighbours of tile i
+    /// are at positions offsets[i] up to but excluding offsets[i + 1]. The array is shared and
+    /// must not be modified.
+    public int[] getNeighbourOffsets() {
 
-        if (left) {
-            neighbours.add(new Coordinates(coords.x - 1, coords.y));
+        if (mNeighbourOffsets == null) {
+            buildAdjacency();
         }
-        if (right) {
-            neighbours.add(new Coordinates(coords.x + 1, coords.y));
+        return mNeighbourOffsets;
+
+    }
+
+    /// Get the indices of the neighbours of every tile in left, right, up, down order, located
+    /// using the neighbour offsets. The array is shared and must not be modified.
+    public int[] getNeighbours() {
+
+        if (mNeighbours == null) {
+            buildAdjacency();
         }
-        if (upper) {
-            neighbours.add(new Coordinates(coords.x, coords.y - 1));
+        return mNeighbours;
+
+    }
+
+    /// Build the neighbour offset and neighbour arrays.
+    private void buildAdjacency() {
+
+        int width = getWidth();
+        int height = getHeight();
+        int[] offsets = new int[width * height + 1];
+        int[] neighbours = new int[4 * width * height];
+        int count = 0;
+        for (int index = 0; index < width * height; ++index) {
+
+            offsets[index] = count;
+            int x = getX(index);
+            int y = getY(index);
+            if (x > 0) {
+                neighbours[count++] = index - 1;
+            }
+            if (x < width - 1) {
+                neighbours[count++] = index + 1;
+            }
+            if (y > 0) {
+                neighbours[count++] = index - width;
+            }
+            if (y < height - 1) {
+                neighbours[count++] = index + width;
+            }
+
         }
-        if (lower) {
-            neighbours.add(new Coordinates(coords.x, coords.y + 1));
+        offsets[width * height] = count;
+        mNeighbours = Arrays.copyOf(neighbours, count);
+        mNeighbourOffsets = offsets;
+
+    }
+
+    /// Get the number of times units or building owners on the grid have changed.
+    public long getModificationCount() {
+        return mModificationCount;
+    }
+
+    /// Record that units or building owners on the grid have changed.
+    public void markModified() {
+        ++mModificationCount;
+    }
+
+    /// Record that the terrain or buildings on the grid have changed so the terrain layer is
+    /// drawn again. Must be called when a building changes owner.
+    public void markTerrainModified() {
+        ++mTerrainModificationCount;
+    }
+
+    /// Get the total move cost of the cheapest path between two tiles over terrain alone, ignoring
+    /// units. The cost of a path is the cost of every tile entered, so the start tile is free.
+    /// \param moveType move type to get the cost for.
+    /// \param from tile to start from.
+    /// \param to tile to reach.
+    /// \return the move cost or UNREACHABLE if there is no path.
+    public int getDistance(int moveType, Coordinates from, Coordinates to) {
+        return getDistances(moveType, to)[from.y * getWidth() + from.x];
+    }
+
+    /// Get the terrain move cost from every tile to a target tile. Terrain does not change once a
+    /// level is set up so tables are kept until a tile is replaced, up to MAX_CACHED_DISTANCES
+    /// costs in total. Past that the least recently used table is dropped.
+    /// \param moveType move type to get costs for.
+    /// \param target tile to reach.
+    /// \return move cost from each tile indexed by y * width + x, UNREACHABLE if there is no path.
+    public synchronized int[] getDistances(int moveType, Coordinates target) {
+
+        int targetIndex = getIndex(target);
+        int key = targetIndex * Unit.MOVE_TYPE_COUNT + moveType;
+        int[] distances = mDistances.get(key);
+        if (distances == null) {
+            if (mDistances.size() >= mDistanceCapacity) {
+                dropLeastRecentDistances();
+            }
+            distances = new FlowField(this, moveType, targetIndex).getCosts();
+            mDistances.put(key, distances);
         }
+        mDistanceUses.put(key, ++mDistanceQueries);
+        return distances;
 
-        return neighbours;
+    }
+
+    /// Drop the distance table that was used least recently.
+    private void dropLeastRecentDistances() {
+
+        int leastKey = IntIntMap.EMPTY;
+        int leastUse = Integer.MAX_VALUE;
+        for (int slot = 0; slot < mDistanceUses.getCapacity(); ++slot) {
+            if (mDistanceUses.isUsed(slot) && mDistanceUses.getValueAt(slot) < leastUse) {
+                leastKey = mDistanceUses.getKeyAt(slot);
+                leastUse = mDistanceUses.getValueAt(slot);
+            }
+        }
+        mDistances.remove(leastKey);
+        mDistanceUses.remove(leastKey);
 
     }
 
-    /// Align the positions of tiles to match logical representation.
+    /// Prepare the grid for use once every tile has been set by building the adjacency table.
+    /// Tile positions follow from their coordinates so need no alignment.
     public void alignTiles() {
+        buildAdjacency();
+    }
+
+    /// Get the overlay drawn over selectable tiles.
+    TextureObject getSelectOverlay() {
+        return mSelect;
+    }
 
-        float x = -(TILE_SIZE * (mTiles.length - 1)) / 2f;
-        float y = -(TILE_SIZE * (mTiles[0].length - 1)) / 2f;
+    /// Get the overlay drawn over the highlighted tile.
+    TextureObject getHighlightOverlay() {
+        return mHighlight;
+    }
+
+    /// Record whether a tile has a unit.
+    /// \param index index of the tile.
+    /// \param occupied whether the tile has a unit.
+    void updateOccupied(int index, boolean occupied) {
 
-        for (int i = 0; i < mTiles.length; ++i) {
-            float currentY = y;
-            for (int j = 0; j < mTiles[0].length; ++j) {
-                mTiles[i][j].setTranslation(x, currentY);
-                currentY += TILE_SIZE;
+        int slot = mOccupiedSlot[index];
+        if (occupied && slot < 0) {
+            if (mOccupiedCount == mOccupied.length) {
+                mOccupied = Arrays.copyOf(mOccupied, mOccupied.length * 2);
             }
-            x += TILE_SIZE;
+            mOccupied[mOccupiedCount] = index;
+            mOccupiedSlot[index] = mOccupiedCount++;
+        } else if (!occupied && slot >= 0) {
+            int last = mOccupied[--mOccupiedCount];
+            mOccupied[slot] = last;
+            mOccupiedSlot[last] = slot;
+            mOccupiedSlot[index] = -1;
+        }
+
+    }
+
+    /// Draw the terrain and buildings of the tiles in view into the terrain layer.
+    private void renderTerrainLayer(PApplet core) {
+
+        int width = (int)((mViewMaxX - mViewMinX + 1) * TILE_SIZE);
+        int height = (int)((mViewMaxY - mViewMinY + 1) * TILE_SIZE);
+        if (mTerrainLayer == null || mTerrainLayer.width != width ||
+            mTerrainLayer.height != height) {
+            mTerrainLayer = core.createGraphics(width, height);
         }
 
+        mTerrainLayer.beginDraw();
+        mTerrainLayer.clear();
+        mTerrainLayer.translate(TILE_SIZE / 2f - getTileXTranslation(mViewMinX),
+                                TILE_SIZE / 2f - getTileYTranslation(mViewMinY));
+        for (int x = mViewMinX; x <= mViewMaxX; ++x) {
+            for (int y = mViewMinY; y <= mViewMaxY; ++y) {
+                getTile(x, y).renderTerrain(mTerrainLayer);
+            }
+        }
+        mTerrainLayer.endDraw();
+
+        mLayerVersion = mTerrainModificationCount;
+        mLayerMinX = mViewMinX;
+        mLayerMaxX = mViewMaxX;
+        mLayerMinY = mViewMinY;
+        mLayerMaxY = mViewMaxY;
+
+    }
+
+    /// Find the columns and rows of tiles in view, including one tile beyond each edge so units
+    /// animating in from outside the view are drawn.
+    private void updateView() {
+
+        float halfWidth = VIEW_WIDTH / (2f * getXScale());
+        float halfHeight = VIEW_HEIGHT / (2f * getYScale());
+        float xOffset = mWidth / 2f;
+        float yOffset = mHeight / 2f;
+        int minX = (int)Math.floor((getCameraX() - halfWidth) / TILE_SIZE + xOffset) - 1;
+        int maxX = (int)Math.floor((getCameraX() + halfWidth) / TILE_SIZE + xOffset) + 1;
+        int minY = (int)Math.floor((getCameraY() - halfHeight) / TILE_SIZE + yOffset) - 1;
+        int maxY = (int)Math.floor((getCameraY() + halfHeight) / TILE_SIZE + yOffset) + 1;
+        mViewMinX = Math.max(0, minX);
+        mViewMaxX = Math.min(mWidth - 1, maxX);
+        mViewMinY = Math.max(0, minY);
+        mViewMaxY = Math.min(mHeight - 1, maxY);
+
     }
 
 }
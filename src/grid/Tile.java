@@ -1,16 +1,18 @@
 package grid;
 
 import processing.core.PApplet;
-import gameobject.RenderableObject;
+import processing.core.PGraphics;
+import processing.core.PVector;
 import gameobject.TextureObject;
-import texture.Texture;
 import unit.Unit;
 import terrain.Terrain;
 import building.Building;
 import rect.Rect;
 
-// Tile that is used to make up game grid.
-public class Tile extends RenderableObject {
+// Tile that is used to make up game grid. Tiles hold only what differs between them; terrain is
+// shared between tiles of the same kind, overlays belong to the grid and the tile's position
+// follows from its coordinates.
+public class Tile {
 
     /// Coordinates tile is located at.
     private final Coordinates mCoords;
@@ -18,39 +20,38 @@ public class Tile extends RenderableObject {
     /// Terrain on this tile.
     private final Terrain mTerrain;
 
-    /// Texture to use for selection.
-    private final TextureObject mSelect;
-
-    /// Texture to use for highlighting.
-    private final TextureObject mHighlight;
-
     /// Building on this tile.
     private Building mBuilding;
 
     /// Unit on this tile.
     private Unit mUnit;
 
+    /// Grid tile is part of.
+    private Grid mGrid;
+
     /// Whether this tile is currently selectable.
     private boolean mSelectable;
 
+    /// Player the tile is selectable by.
+    private int mSelectPlayer;
+
     /// Whether this tile is currently highlighted.
     private boolean mHighlighted;
 
     /// Initialise tile.
-    public Tile(Coordinates coords,
-                Terrain terrain, 
-                Texture select, 
-                Texture highlight) {
+    /// \param coords coordinates tile is located at.
+    /// \param terrain terrain on the tile, which may be shared with other tiles.
+    public Tile(Coordinates coords, Terrain terrain) {
 
         mCoords = coords;
         mTerrain = terrain;
-        mHighlight = new TextureObject(highlight);
-        mSelect = new TextureObject(select);
 
         mBuilding = null;
         mUnit = null;
+        mGrid = null;
 
         mSelectable = false;
+        mSelectPlayer = 0;
         mHighlighted = false;
 
     }
@@ -62,13 +63,24 @@ public class Tile extends RenderableObject {
         if (unit != null) {
             unit.setCoords(mCoords);
         }
+        markModified();
 
     }
 
     /// Set building on tile.
     public void setBuilding(Building building) {
+
         mBuilding = building;
         building.setCoords(mCoords);
+        if (mGrid != null) {
+            mGrid.markTerrainModified();
+        }
+
+    }
+
+    /// Set grid tile is part of.
+    void setGrid(Grid grid) {
+        mGrid = grid;
     }
 
     /// Get coordinates of tile in grid.
@@ -103,15 +115,33 @@ public class Tile extends RenderableObject {
 
     /// Set tile as selectable by a player.
     public void setSelectable(int player) {
-        mSelect.setClip(player); 
+        mSelectPlayer = player;
         mSelectable = true;
     }
 
+    /// Get the position of the tile relative to the centre of the grid.
+    public PVector getTranslation() {
+        return new PVector(getXTranslation(), getYTranslation());
+    }
+
+    /// Get the x position of the tile relative to the centre of the grid.
+    public float getXTranslation() {
+        return mGrid.getTileXTranslation(mCoords.x);
+    }
+
+    /// Get the y position of the tile relative to the centre of the grid.
+    public float getYTranslation() {
+        return mGrid.getTileYTranslation(mCoords.y);
+    }
+
     /// Get bounding rectangle for tile.
     public Rect getBounds() {
-        Rect bounds = mTerrain.getBounds();
-        bounds.transform(this);
-        return bounds;
+
+        float width = mTerrain.getWidth();
+        float height = mTerrain.getHeight();
+        return new Rect(getXTranslation() - width / 2f, getYTranslation() - height / 2f,
+                        width, height);
+
     }
 
     // Update tile by updating unit and removing it if it is destroyed.
@@ -119,26 +149,63 @@ public class Tile extends RenderableObject {
 
         if (mUnit != null) {
             mUnit.update(delta);
-            if (!mUnit.isBusy() && mUnit.isDestroyed()) {
-                mUnit = null;
-            }
+            removeDestroyed();
+        }
+
+    }
+
+    /// Remove unit from tile if it is destroyed and not busy.
+    public void removeDestroyed() {
+
+        if (mUnit != null && !mUnit.isBusy() && mUnit.isDestroyed()) {
+            mUnit = null;
+            markModified();
+        }
+
+    }
+
+    /// Record a change of unit to the grid tile is part of.
+    private void markModified() {
+
+        if (mGrid != null) {
+            mGrid.updateOccupied(mGrid.getIndex(mCoords), mUnit != null);
+            mGrid.markModified();
         }
 
     }
 
-    /// Render the main elements of the tile other than the unit.
-    public void renderCurrent(PApplet core) {
+    /// Render the terrain and any building on the tile. These only change when a building is
+    /// captured, so the grid draws them into its cached terrain layer.
+    /// \param graphics graphics of the terrain layer to render into.
+    public void renderTerrain(PGraphics graphics) {
 
-        mTerrain.render(core);
+        graphics.pushMatrix();
+        graphics.translate(getXTranslation(), getYTranslation());
+        mTerrain.render(graphics);
         if (mBuilding != null) {
-            mBuilding.render(core);
+            mBuilding.render(graphics);
+        }
+        graphics.popMatrix();
+
+    }
+
+    /// Render the selection and highlight overlays if the tile has them.
+    public void renderOverlays(PApplet core) {
+
+        if (!mSelectable && !mHighlighted) {
+            return;
         }
+        core.pushMatrix();
+        core.translate(getXTranslation(), getYTranslation());
         if (mSelectable) {
-            mSelect.render(core);
+            TextureObject select = mGrid.getSelectOverlay();
+            select.setClip(mSelectPlayer);
+            select.render(core);
         }
         if (mHighlighted) {
-            mHighlight.render(core);
+            mGrid.getHighlightOverlay().render(core);
         }
+        core.popMatrix();
 
     }
 
@@ -147,7 +214,7 @@ public class Tile extends RenderableObject {
 
         if (mUnit != null) {
             core.pushMatrix();
-            applyTransform(core);
+            core.translate(getXTranslation(), getYTranslation());
             mUnit.render(core);
             core.popMatrix();
         }
@@ -0,0 +1,172 @@
+package grid;
+
+import java.lang.Long;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/// Set of tiles on a grid stored as a bitset with one bit per tile index (y * width + x).
+/// Membership checks are a single bit test, unions and intersections work a word of 64 tiles at
+/// a time and tiles can be iterated in index order without allocating:
+///
+///     for (int i = set.next(0); i >= 0; i = set.next(i + 1)) { ... }
+public final class TileSet {
+
+    /// Width of the grid.
+    private final int mWidth;
+
+    /// Number of tiles on the grid.
+    private final int mTileCount;
+
+    /// Bits of each tile index.
+    private final long[] mBits;
+
+    /// Create an empty set for a grid.
+    public TileSet(Grid grid) {
+        this(grid.getWidth(), grid.getTileCount());
+    }
+
+    /// Create an empty set.
+    /// \param width width of the grid.
+    /// \param tileCount number of tiles on the grid.
+    public TileSet(int width, int tileCount) {
+
+        mWidth = width;
+        mTileCount = tileCount;
+        mBits = new long[(tileCount + 63) >>> 6];
+
+    }
+
+    /// Create a copy of another set.
+    private TileSet(TileSet other) {
+
+        mWidth = other.mWidth;
+        mTileCount = other.mTileCount;
+        mBits = other.mBits.clone();
+
+    }
+
+    /// Get a copy of the set.
+    public TileSet copy() {
+        return new TileSet(this);
+    }
+
+    /// Add a tile to the set.
+    public void add(int index) {
+        mBits[index >>> 6] |= 1L << index;
+    }
+
+    /// Add a tile to the set.
+    public void add(Coordinates coords) {
+        add(getIndex(coords));
+    }
+
+    /// Remove a tile from the set.
+    public void remove(int index) {
+        mBits[index >>> 6] &= ~(1L << index);
+    }
+
+    /// Check whether a tile is in the set.
+    public boolean contains(int index) {
+        return (mBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /// Check whether a tile is in the set.
+    public boolean contains(Coordinates coords) {
+        return contains(getIndex(coords));
+    }
+
+    /// Add every tile in another set on the same grid.
+    public void addAll(TileSet other) {
+
+        assert other.mTileCount == mTileCount;
+        for (int i = 0; i < mBits.length; ++i) {
+            mBits[i] |= other.mBits[i];
+        }
+
+    }
+
+    /// Remove every tile not in another set on the same grid.
+    public void retainAll(TileSet other) {
+
+        assert other.mTileCount == mTileCount;
+        for (int i = 0; i < mBits.length; ++i) {
+            mBits[i] &= other.mBits[i];
+        }
+
+    }
+
+    /// Remove every tile in another set on the same grid.
+    public void removeAll(TileSet other) {
+
+        assert other.mTileCount == mTileCount;
+        for (int i = 0; i < mBits.length; ++i) {
+            mBits[i] &= ~other.mBits[i];
+        }
+
+    }
+
+    /// Remove every tile.
+    public void clear() {
+        Arrays.fill(mBits, 0L);
+    }
+
+    /// Get the number of tiles in the set.
+    public int size() {
+
+        int size = 0;
+        for (long word : mBits) {
+            size += Long.bitCount(word);
+        }
+        return size;
+
+    }
+
+    /// Check whether the set is empty.
+    public boolean isEmpty() {
+
+        for (long word : mBits) {
+            if (word != 0L) {
+                return false;
+            }
+        }
+        return true;
+
+    }
+
+    /// Get the first tile in the set at or after an index.
+    /// \param from index to start from.
+    /// \return index of the tile or -1 if there are no more tiles.
+    public int next(int from) {
+
+        if (from >= mTileCount) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = mBits[word] & (-1L << from);
+        while (bits == 0L) {
+            if (++word == mBits.length) {
+                return -1;
+            }
+            bits = mBits[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+
+    }
+
+    /// Get the coordinates of every tile in the set in index order.
+    public ArrayList<Coordinates> getCoordinates() {
+
+        ArrayList<Coordinates> coordinates = new ArrayList<>();
+        for (int i = next(0); i >= 0; i = next(i + 1)) {
+            coordinates.add(new Coordinates(i % mWidth, i / mWidth));
+        }
+        return coordinates;
+
+    }
+
+    /// Get the index of a tile.
+    private int getIndex(Coordinates coords) {
+        return coords.y * mWidth + coords.x;
+    }
+
+}
@@ -1,19 +1,54 @@
 package random;
 
 import processing.core.PVector;
-import java.util.Random;
+import java.util.SplittableRandom;
 import rect.Rect;
 
-/// Class managing random operations.
+/// Class managing random operations. Each match and controller uses its own
+/// randomiser split from a seeded parent so that games are reproducible and
+/// parallel simulations do not share a generator.
 public class Randomiser {
 
     /// Random number generator.
-    private static Random mRandom;
+    private final SplittableRandom mRandom;
 
-    /// Initialise random number generator.
-    static {
+    /// Initialise random number generator with an arbitrary seed.
+    public Randomiser() {
 
-        mRandom = new Random();
+        mRandom = new SplittableRandom();
+
+    }
+
+    /// Initialise random number generator with a seed.
+    /// \param seed seed to generate the random sequence from.
+    public Randomiser(long seed) {
+
+        mRandom = new SplittableRandom(seed);
+
+    }
+
+    /// Initialise with an existing generator.
+    /// \param random generator to use.
+    private Randomiser(SplittableRandom random) {
+
+        mRandom = random;
+
+    }
+
+    /// Create a new independent randomiser. The sequence of the new randomiser
+    /// is determined by the sequence of this one so splitting is reproducible.
+    /// \return a randomiser with a new stream of random numbers.
+    public Randomiser split() {
+
+        return new Randomiser(mRandom.split());
+
+    }
+
+    /// Generate a random long.
+    /// \return a random long.
+    public long randomLong() {
+
+        return mRandom.nextLong();
 
     }
 
@@ -21,7 +56,7 @@ public class Randomiser {
     /// \param min the minimum value that can be generated.
     /// \param max the maximum value that can be generated.
     /// \return a random int a least min and no more than max.
-    public static int randomInt(int min, int max) {
+    public int randomInt(int min, int max) {
 
         return mRandom.nextInt((max - min) + 1) + min;
 
@@ -31,17 +66,17 @@ public class Randomiser {
     /// \param min the minimum value that can be generated.
     /// \param max the maximum value that can be generated.
     /// \return a random float a least min and no more than max.
-    public static float randomFloat(float min, float max) {
+    public float randomFloat(float min, float max) {
 
-        return min + mRandom.nextFloat() * (max - min);
+        return min + (float)mRandom.nextDouble() * (max - min);
 
     }
 
     /// Generate a random point in a rectangle.
     /// \param bounds rectangle to generate a point within.
     /// \return a random point within bounds.
-    public static PVector randomPoint(Rect bounds) {
-        
+    public PVector randomPoint(Rect bounds) {
+
         float x = randomFloat(bounds.x, bounds.x + bounds.width);
         float y = randomFloat(bounds.y, bounds.y + bounds.height);
         return new PVector(x, y);
@@ -2,13 +2,13 @@ package scene;
 
 import processing.core.PApplet;
 import processing.core.PVector;
-import java.util.Iterator;
 import java.util.ArrayList;
 import java.util.function.Consumer;
 import texture.TextureManager;
 import grid.Grid;
 import grid.Coordinates;
 import grid.Tile;
+import grid.TileSet;
 import menu.Menu;
 import menu.ActionButton;
 import menu.Button;
@@ -19,6 +19,7 @@ import unit.WheelSnake;
 import unit.TankSnake;
 import unit.JetSnake;
 import unit.HeadQuarters;
+import unit.CombatForecast;
 import building.Building;
 import building.Flag;
 import terrain.Terrain;
@@ -27,17 +28,26 @@ import terrain.Water;
 import terrain.Plains;
 import terrain.Mountain;
 import rect.Rect;
+import random.Randomiser;
 import config.Config;
 import gameobject.TextObject;
 import controller.Controller;
+import simulation.GameState;
 
 /// Manages the playing of a round of the game. Provides interface for controllers to interact with
 /// the game world.
+///
+/// A game created without a texture manager is headless: no images are used, no menus or info
+/// dialogues are created and the first turn starts immediately. Headless games are driven purely by
+/// their controllers through update() and are intended for simulation.
 public abstract class GameManager {
 
-    /// Textures for displaying game.
+    /// Textures for displaying game or null if headless.
     protected final TextureManager mTextureManager;
 
+    /// Random number generator for this game.
+    protected final Randomiser mRandomiser;
+
     /// Id of player who's turn it is.
     private int mActivePlayer;
 
@@ -65,19 +75,56 @@ public abstract class GameManager {
     /// Whether the game has finished.
     private boolean mGameOver;
 
+    /// Number of turns that have been ended.
+    private int mTurn;
+
+    /// Whether unit actions take full effect immediately rather than as they are animated.
+    private boolean mInstant;
+
     /// Currently highlighted tile.
     private Tile mHighlighted;
 
-    /// List of coordinates that are currently valid for selection.
-    private ArrayList<Coordinates> mSelectable;
+    /// Tiles that are currently valid for selection.
+    private TileSet mSelectable;
 
     /// Action to carry out when a position is selected.
     private Consumer<Coordinates> mSelectAction;
 
+    /// Unit whose attack outcomes are previewed on highlighted targets or null if none.
+    private Unit mAttacker;
+
+    /// Unit showing a previewed attack outcome or null if none.
+    private Unit mPreviewed;
+
+    /// Terrain shared by every plains, mountain and water tile, indexed by terrain type.
+    private final Terrain[] mTerrains;
+
+    /// Roads shared by every road tile of the same shape, indexed by (straight ? 4 : 0) +
+    /// quarter turns.
+    private final Road[] mRoads;
+
+    /// Initialise game on a grid of the default size.
+    /// \param textureManager textures for displaying the game or null to run headless.
+    /// \param randomiser random number generator for this game.
+    /// \param controllers controller for each player.
+    public GameManager(TextureManager textureManager, Randomiser randomiser,
+                       Controller[] controllers) {
+
+        this(textureManager, randomiser, controllers, Grid.DEFAULT_LENGTH, Grid.DEFAULT_LENGTH);
+
+    }
+
     /// Initialise game.
-    public GameManager(TextureManager textureManager, Controller[] controllers) {
+    /// \param textureManager textures for displaying the game or null to run headless.
+    /// \param randomiser random number generator for this game.
+    /// \param controllers controller for each player.
+    /// \param gridWidth number of tiles along the x axis of the level's grid.
+    /// \param gridHeight number of tiles along the y axis of the level's grid.
+    protected GameManager(TextureManager textureManager, Randomiser randomiser,
+                          Controller[] controllers, int gridWidth, int gridHeight) {
 
         mTextureManager = textureManager;
+        mRandomiser = randomiser;
         mActivePlayer = 1;
         mStatus = new PlayerStatus[Config.PLAYER_COUNT];
         mControllers = controllers;
@@ -87,10 +134,17 @@ public abstract class GameManager {
         mEndMenu = null;
         mEndButton = null;
 
-        initEndMenu();
+        if (!isHeadless()) {
+            initEndMenu();
+        }
         initStatus();
 
-        mGrid = new Grid();
+        mInstant = isHeadless();
+        mTerrains = new Terrain[Terrain.TYPE_COUNT];
+        mRoads = new Road[8];
+        mGrid = new Grid(gridWidth, gridHeight,
+                         getTexture(Config.SELECTABLE_TEXTURE_ID),
+                         getTexture(Config.HIGHLIGHT_TEXTURE_ID));
         initTiles();
         setup();
         mGrid.alignTiles();
@@ -98,9 +152,17 @@ public abstract class GameManager {
         mHighlighted = null;
         mSelectable = null;
         mSelectAction = null;
+        mAttacker = null;
+        mPreviewed = null;
 
         mGameOver = false;
-        setInfo(getInitialInfo());
+        mTurn = 0;
+        mInfo = null;
+        if (isHeadless()) {
+            getStatus(mActivePlayer).startTurn();
+        } else {
+            setInfo(getInitialInfo());
+        }
 
     }
 
@@ -113,28 +175,19 @@ public abstract class GameManager {
     /// Update the different parts of the game.
     public void update(PVector mousePos, float delta) {
 
-        if (mInfo == null) {
+        if (mInfo == null && !mGameOver) {
             mControllers[mActivePlayer - 1].update(this, mousePos, delta);
         }
 
         mGrid.update(delta);
-        if (!mGameOver) {
-
-            for (int i = 0; i < mStatus.length && !mGameOver; ++i) {
-                mStatus[i].update(delta);
-                mGameOver = mStatus[i].hasLost();
-            }
-            if (mGameOver) {
-                setInfo(getEndInfo());
-            }
-
-        }
+        updateStatus(delta);
 
     }
 
     /// Render the game.
     public void render(PApplet core) {
 
+        assert !isHeadless();
         mGrid.render(core);
         mEndMenu.render(core);
         for (int i = 0; i < mStatus.length; ++i) {
@@ -159,6 +212,144 @@ public abstract class GameManager {
         return null;
     }
 
+    /// Get the id of the winning player.
+    /// \return the id of the winning player or 0 if the game is not over.
+    public int getWinner() {
+
+        if (!mGameOver) {
+            return 0;
+        }
+        for (int i = 0; i < mStatus.length; ++i) {
+            if (!mStatus[i].hasLost()) {
+                return i + 1;
+            }
+        }
+        return 0;
+
+    }
+
+    /// Get the number of turns that have been ended.
+    public int getTurn() {
+        return mTurn;
+    }
+
+    /// Get the id of player who's turn it is.
+    public int getActivePlayer() {
+        return mActivePlayer;
+    }
+
+    /// Set whether unit actions take full effect immediately. Headless games always use instant
+    /// resolution. Otherwise moves and attacks are replayed as animations after being resolved.
+    /// \param instant whether to resolve actions instantly.
+    public void setInstantResolution(boolean instant) {
+
+        mInstant = instant || isHeadless();
+        for (int i = 0; i < mStatus.length; ++i) {
+            for (HeadQuarters hq : mStatus[i].getHqs()) {
+                hq.setInstant(mInstant);
+            }
+            for (Unit unit : mStatus[i].getUnits()) {
+                unit.setInstant(mInstant);
+            }
+        }
+
+    }
+
+    /// Check if unit actions take full effect immediately.
+    public boolean isInstantResolution() {
+        return mInstant;
+    }
+
+    /// Apply a snapshot to the game, replacing units that differ in type or owner and updating
+    /// HP, action state, building owners, points and the active player to match.
+    /// \param state snapshot of this game to apply.
+    public void applyState(GameState state) {
+
+        for (int i = 0; i < state.getTileCount(); ++i) {
+
+            Tile tile = mGrid.getTile(state.getX(i), state.getY(i));
+            Unit unit = tile.getUnit();
+            int type = state.getUnitType(i);
+            int owner = state.getUnitOwner(i);
+
+            // Remove units that are not in the snapshot.
+            if (unit != null && (type == GameState.NO_UNIT || 
+                                 unit.getType() != type || unit.getPlayer() != owner)) {
+                getStatus(unit.getPlayer()).removeUnit(unit);
+                tile.setUnit(null);
+                unit = null;
+            }
+
+            // Add missing units then match their state.
+            if (type != GameState.NO_UNIT) {
+                if (unit == null) {
+                    addUnit(type, tile.getCoords(), owner);
+                    unit = tile.getUnit();
+                }
+                unit.setHitPoints(state.getUnitHp(i));
+                unit.setActionState(state.hasMoved(i), state.hasActed(i));
+            }
+
+            if (state.hasBuilding(i)) {
+                tile.getBuilding().setOwner(state.getBuildingOwner(i));
+            }
+
+        }
+
+        mGrid.markModified();
+        mGrid.markTerrainModified();
+
+        for (int i = 0; i < mStatus.length; ++i) {
+            mStatus[i].setPoints(state.getPoints(i + 1));
+        }
+        mActivePlayer = state.getActivePlayer();
+        mTurn = state.getTurn();
+        if (mEndButton != null) {
+            mEndButton.setClip(mActivePlayer);
+        }
+        mActionMenu = null;
+        clear();
+
+    }
+
+    /// Check if the game is running without textures or user interface.
+    public boolean isHeadless() {
+        return mTextureManager == null;
+    }
+
+    /// Stop work in progress by every controller, such as when the game is paused or left.
+    public void cancelControllers() {
+
+        for (Controller controller : mControllers) {
+            controller.cancel();
+        }
+
+    }
+
+    /// Check whether any unit is busy animating an action.
+    public boolean hasBusyUnits() {
+
+        for (PlayerStatus status : mStatus) {
+            for (Unit unit : status.getUnits()) {
+                if (unit.isBusy()) {
+                    return true;
+                }
+            }
+            for (HeadQuarters hq : status.getHqs()) {
+                if (hq.isBusy()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+
+    }
+
+    /// Get the random number generator for this game.
+    public Randomiser getRandomiser() {
+        return mRandomiser;
+    }
+
     /// Get the status for a player.
     public PlayerStatus getStatus(int player) {
         return mStatus[player - 1];
@@ -187,6 +378,7 @@ public abstract class GameManager {
             mHighlighted.setHighlight(false);
             mHighlighted = null;
         }
+        clearPreview();
         if (mInfo == null) {
             if (!mEndMenu.highlight(pos) && mActionMenu != null) {
                 mActionMenu.highlight(pos);
@@ -240,30 +432,36 @@ public abstract class GameManager {
     }
 
     /// Set which tiles are selectable.
-    /// \param selectable coordinates of selectable tiles.
+    /// \param selectable selectable tiles.
     /// \param action action to be carried out when a tile is selected.
-    public void setSelectable(ArrayList<Coordinates> selectable, 
-                              Consumer<Coordinates> action) {
+    public void setSelectable(TileSet selectable, Consumer<Coordinates> action) {
 
         mSelectable = selectable;
         mSelectAction = action;
-        Iterator<Coordinates> it = selectable.iterator();
-        while (it.hasNext()) {
-            Tile current = mGrid.getTile(it.next());
-            current.setSelectable(mActivePlayer);
+        for (int i = selectable.next(0); i >= 0; i = selectable.next(i + 1)) {
+            mGrid.getTile(i).setSelectable(mActivePlayer);
         }
 
     }
 
+    /// Preview the outcome of attacks on highlighted selectable tiles.
+    /// \param attacker unit carrying out the attacks.
+    public void setAttackPreview(Unit attacker) {
+        mAttacker = attacker;
+    }
+
 
     /// End the current turn, switch active player and controller.
     public void endTurn() {
 
         getStatus(mActivePlayer).endTurn();
+        ++mTurn;
         mActivePlayer %= Config.PLAYER_COUNT;
         ++mActivePlayer;
         getStatus(mActivePlayer).startTurn();
-        mEndButton.setClip(mActivePlayer);
+        if (mEndButton != null) {
+            mEndButton.setClip(mActivePlayer);
+        }
         mActionMenu = null;
         clear();
 
@@ -291,6 +489,13 @@ public abstract class GameManager {
         attacker.attack(defenderPos);
         attacker.deactivate();
 
+        // Remove instantly destroyed units that are not replaying the attack.
+        if (mInstant) {
+            attackerTile.removeDestroyed();
+            mGrid.getTile(defenderPos).removeDestroyed();
+            updateStatus(0f);
+        }
+
     }
 
     /// Capture a building.
@@ -299,6 +504,8 @@ public abstract class GameManager {
 
         Tile tile = mGrid.getTile(coords);
         tile.getBuilding().setOwner(mActivePlayer);
+        mGrid.markModified();
+        mGrid.markTerrainModified();
         tile.getUnit().deactivate();
 
     }
@@ -347,8 +554,10 @@ public abstract class GameManager {
     /// \param coords position to add tile.
     protected void addPlains(Coordinates coords) {
 
-        Texture terrainTexture = mTextureManager.getTexture(Config.TERRAIN_TEXTURE_ID);
-        addTile(coords, new Plains(terrainTexture));
+        if (mTerrains[Terrain.PLAINS_TYPE] == null) {
+            mTerrains[Terrain.PLAINS_TYPE] = new Plains(getTexture(Config.TERRAIN_TEXTURE_ID));
+        }
+        addTile(coords, mTerrains[Terrain.PLAINS_TYPE]);
 
     }
 
@@ -356,8 +565,10 @@ public abstract class GameManager {
     /// \param coords position to add tile.
     protected void addMountain(Coordinates coords) {
 
-        Texture terrainTexture = mTextureManager.getTexture(Config.TERRAIN_TEXTURE_ID);
-        addTile(coords, new Mountain(terrainTexture));
+        if (mTerrains[Terrain.MOUNTAIN_TYPE] == null) {
+            mTerrains[Terrain.MOUNTAIN_TYPE] = new Mountain(getTexture(Config.TERRAIN_TEXTURE_ID));
+        }
+        addTile(coords, mTerrains[Terrain.MOUNTAIN_TYPE]);
 
     }
 
@@ -365,8 +576,10 @@ public abstract class GameManager {
     /// \param coords position to add tile.
     protected void addWater(Coordinates coords) {
 
-        Texture terrainTexture = mTextureManager.getTexture(Config.TERRAIN_TEXTURE_ID);
-        addTile(coords, new Water(terrainTexture));
+        if (mTerrains[Terrain.WATER_TYPE] == null) {
+            mTerrains[Terrain.WATER_TYPE] = new Water(getTexture(Config.TERRAIN_TEXTURE_ID));
+        }
+        addTile(coords, mTerrains[Terrain.WATER_TYPE]);
 
     }
 
@@ -376,10 +589,12 @@ public abstract class GameManager {
     /// \param rotations how many times the road should be rotated 90 degrees.
     protected void addRoad(Coordinates coords, boolean straight, int rotations) {
 
-        Texture terrainTexture = mTextureManager.getTexture(Config.TERRAIN_TEXTURE_ID);
-        Road road = new Road(terrainTexture, straight);
-        road.setRotation(90f * rotations);
-        addTile(coords, road);
+        int key = (straight ? 4 : 0) + (rotations & 3);
+        if (mRoads[key] == null) {
+            mRoads[key] = new Road(getTexture(Config.TERRAIN_TEXTURE_ID), straight);
+            mRoads[key].setRotation(90f * rotations);
+        }
+        addTile(coords, mRoads[key]);
 
     }
 
@@ -388,9 +603,10 @@ public abstract class GameManager {
     /// \param owner owner of new HQ.
     protected void addHq(Coordinates coords, int owner) {
 
-        Texture hqTexture = mTextureManager.getTexture(Config.HQ_TEXTURE_ID);
-        Texture buttonTexture = mTextureManager.getTexture(Config.BUTTON_TEXTURE_ID);
+        Texture hqTexture = getTexture(Config.HQ_TEXTURE_ID);
+        Texture buttonTexture = getTexture(Config.BUTTON_TEXTURE_ID);
         HeadQuarters hq = new HeadQuarters(hqTexture, buttonTexture, owner, mGrid);
+        hq.setInstant(mInstant);
         mGrid.getTile(coords).setUnit(hq);
         getStatus(owner).addHq(hq);
 
@@ -400,7 +616,7 @@ public abstract class GameManager {
     /// \param coords position to add flag.
     protected void addFlag(Coordinates coords) {
 
-        Texture flagTexture = mTextureManager.getTexture(Config.FLAG_TEXTURE_ID);
+        Texture flagTexture = getTexture(Config.FLAG_TEXTURE_ID);
         Flag flag = new Flag(flagTexture);
         mGrid.getTile(coords).setBuilding(flag);
         for (int i = 0; i < mStatus.length; ++i) {
@@ -409,14 +625,42 @@ public abstract class GameManager {
 
     }
 
+    /// Add a unit of any type to the grid.
+    /// \param type type of unit to add.
+    /// \param coords position to add unit.
+    /// \param owner owner of new unit.
+    protected void addUnit(int type, Coordinates coords, int owner) {
+
+        switch (type) {
+            case Unit.HQ_TYPE:
+                addHq(coords, owner);
+                break;
+            case Unit.SNAKE_TYPE:
+                addSnake(coords, owner);
+                break;
+            case Unit.WHEEL_SNAKE_TYPE:
+                addWheelSnake(coords, owner);
+                break;
+            case Unit.TANK_SNAKE_TYPE:
+                addTankSnake(coords, owner);
+                break;
+            default:
+                assert type == Unit.JET_SNAKE_TYPE;
+                addJetSnake(coords, owner);
+                break;
+        }
+
+    }
+
     /// Add a Snake to the grid.
     /// \param coords position to add unit.
     /// \param owner owner of new unit.
     protected void addSnake(Coordinates coords, int owner) {
 
-        Texture buttonTexture = mTextureManager.getTexture(Config.BUTTON_TEXTURE_ID);
-        Texture snakeTexture = mTextureManager.getTexture(Config.SNAKE_TEXTURE_ID);
+        Texture buttonTexture = getTexture(Config.BUTTON_TEXTURE_ID);
+        Texture snakeTexture = getTexture(Config.SNAKE_TEXTURE_ID);
         Snake snake = new Snake(snakeTexture, buttonTexture, owner, mGrid);
+        snake.setInstant(mInstant);
         mGrid.getTile(coords).setUnit(snake);
         getStatus(owner).addUnit(snake);
 
@@ -427,9 +671,10 @@ public abstract class GameManager {
     /// \param owner owner of new unit.
     protected void addWheelSnake(Coordinates coords, int owner) {
 
-        Texture buttonTexture = mTextureManager.getTexture(Config.BUTTON_TEXTURE_ID);
-        Texture wheelTexture = mTextureManager.getTexture(Config.WHEEL_SNAKE_TEXTURE_ID);
+        Texture buttonTexture = getTexture(Config.BUTTON_TEXTURE_ID);
+        Texture wheelTexture = getTexture(Config.WHEEL_SNAKE_TEXTURE_ID);
         WheelSnake wheel  = new WheelSnake(wheelTexture, buttonTexture, owner, mGrid);
+        wheel.setInstant(mInstant);
         mGrid.getTile(coords).setUnit(wheel);
         getStatus(owner).addUnit(wheel);
 
@@ -440,9 +685,10 @@ public abstract class GameManager {
     /// \param owner owner of new unit.
     protected void addTankSnake(Coordinates coords, int owner) {
 
-        Texture buttonTexture = mTextureManager.getTexture(Config.BUTTON_TEXTURE_ID);
-        Texture tankTexture = mTextureManager.getTexture(Config.TANK_SNAKE_TEXTURE_ID);
+        Texture buttonTexture = getTexture(Config.BUTTON_TEXTURE_ID);
+        Texture tankTexture = getTexture(Config.TANK_SNAKE_TEXTURE_ID);
         TankSnake tank = new TankSnake(tankTexture, buttonTexture, owner, mGrid);
+        tank.setInstant(mInstant);
         mGrid.getTile(coords).setUnit(tank);
         getStatus(owner).addUnit(tank);
 
@@ -453,14 +699,27 @@ public abstract class GameManager {
     /// \param owner owner of new unit.
     protected void addJetSnake(Coordinates coords, int owner) {
 
-        Texture buttonTexture = mTextureManager.getTexture(Config.BUTTON_TEXTURE_ID);
-        Texture jetTexture = mTextureManager.getTexture(Config.JET_SNAKE_TEXTURE_ID);
+        Texture buttonTexture = getTexture(Config.BUTTON_TEXTURE_ID);
+        Texture jetTexture = getTexture(Config.JET_SNAKE_TEXTURE_ID);
         JetSnake jet = new JetSnake(jetTexture, buttonTexture, owner, mGrid);
+        jet.setInstant(mInstant);
         mGrid.getTile(coords).setUnit(jet);
         getStatus(owner).addUnit(jet);
 
     }
 
+    /// Get a texture for displaying the game.
+    /// \param key identifier of the texture.
+    /// \return the texture or null if the game is headless.
+    private Texture getTexture(String key) {
+
+        if (isHeadless()) {
+            return null;
+        }
+        return mTextureManager.getTexture(key);
+
+    }
+
     /// Carry out buy action. 
     /// \param hq HeadQuarters performing buy.
     /// \param cost points cost of buy.
@@ -477,11 +736,24 @@ public abstract class GameManager {
     /// \param coords position to add the tile.
     /// \param terrain terrain to use for the tile.
     private void addTile(Coordinates coords, Terrain terrain) {
+        mGrid.setTile(coords, new Tile(coords, terrain));
+    }
+
+    /// Update player statuses and check whether the game has finished.
+    /// \param delta time since last update.
+    private void updateStatus(float delta) {
 
-        Texture selectTexture = mTextureManager.getTexture(Config.SELECTABLE_TEXTURE_ID);
-        Texture highlightTexture = mTextureManager.getTexture(Config.HIGHLIGHT_TEXTURE_ID);
-        Tile tile = new Tile(coords, terrain, selectTexture, highlightTexture);
-        mGrid.setTile(coords, tile);
+        if (!mGameOver) {
+
+            for (int i = 0; i < mStatus.length && !mGameOver; ++i) {
+                mStatus[i].update(delta);
+                mGameOver = mStatus[i].hasLost();
+            }
+            if (mGameOver && !isHeadless()) {
+                setInfo(getEndInfo());
+            }
+
+        }
 
     }
 
@@ -490,14 +762,25 @@ public abstract class GameManager {
 
         if (mSelectable != null) {
 
-            Iterator<Coordinates> it = mSelectable.iterator();
-            while (it.hasNext()) {
-                Tile current = mGrid.getTile(it.next());
-                current.deselect();
+            for (int i = mSelectable.next(0); i >= 0; i = mSelectable.next(i + 1)) {
+                mGrid.getTile(i).deselect();
             }
             mSelectable = null;
 
         }
+        clearPreview();
+        mAttacker = null;
+
+    }
+
+    /// Stop showing any previewed attack outcome.
+    private void clearPreview() {
+
+        if (mPreviewed != null) {
+            mAttacker.clearForecast();
+            mPreviewed.clearForecast();
+            mPreviewed = null;
+        }
 
     }
 
@@ -533,7 +816,7 @@ public abstract class GameManager {
         if (unit != null && unit.getPlayer() == mActivePlayer && !unit.isBusy()) {
 
             ArrayList<Button> actions = unit.getActions(this);
-            Texture buttonTexture = mTextureManager.getTexture(Config.BUTTON_TEXTURE_ID);
+            Texture buttonTexture = getTexture(Config.BUTTON_TEXTURE_ID);
             String closeText = actions.isEmpty() ? "No Action" : "Close";
             actions.add(new Button(buttonTexture, closeText, Config.BUTTON_TEXT_SIZE));
             for (Button button : actions) {
@@ -552,8 +835,8 @@ public abstract class GameManager {
 
         PVector centre = mGrid.getTranslation();
         mActionMenu.setTranslation(centre);
-        mActionMenu.translate(tile.getXTranslation() * mGrid.getXScale(),
-                       tile.getYTranslation() * mGrid.getYScale());
+        mActionMenu.translate((tile.getXTranslation() - mGrid.getCameraX()) * mGrid.getXScale(),
+                              (tile.getYTranslation() - mGrid.getCameraY()) * mGrid.getYScale());
 
         Rect menuBounds = mActionMenu.getBounds();
         Rect tileBounds = tile.getBounds().transform(mGrid);
@@ -574,7 +857,7 @@ public abstract class GameManager {
     /// Initialise end turn menu.
     private void initEndMenu() {
 
-        Texture texture = mTextureManager.getTexture(Config.BUTTON_TEXTURE_ID);
+        Texture texture = getTexture(Config.BUTTON_TEXTURE_ID);
         Runnable endAction =
             () -> {
                 this.endTurn();
@@ -604,7 +887,7 @@ public abstract class GameManager {
     /// \param text information to display. 
     private void setInfo(String text) {
 
-        Texture infoTexture = mTextureManager.getTexture(Config.INFO_BACK_TEXTURE_ID);
+        Texture infoTexture = getTexture(Config.INFO_BACK_TEXTURE_ID);
         mInfo = new InfoBox(infoTexture, text);
         mInfo.setTranslation(Config.WINDOW_WIDTH / 2f, Config.WINDOW_HEIGHT / 2f);
 
@@ -621,6 +904,16 @@ public abstract class GameManager {
             mHighlighted = highlighted;
             mHighlighted.setHighlight(true);
 
+            // Show the HP both units would be left with if the highlighted unit is attacked.
+            Unit defender = highlighted.getUnit();
+            if (mAttacker != null && defender != null && defender != mAttacker) {
+                CombatForecast forecast = mAttacker.forecastAttack(mAttacker.getCoords(),
+                                                                    defender);
+                mAttacker.setForecastHp(forecast.getAttackerHp());
+                defender.setForecastHp(forecast.getDefenderHp());
+                mPreviewed = defender;
+            }
+
         }
 
     }
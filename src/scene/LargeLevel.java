@@ -0,0 +1,122 @@
+package scene;
+
+import texture.TextureManager;
+import controller.Controller;
+import grid.Coordinates;
+import random.Randomiser;
+import config.Config;
+
+/// The symmetric level scaled up to a square grid of any size. At the default size it is the
+/// same as the symmetric level.
+public class LargeLevel extends GameManager {
+
+    /// Smallest and largest number of tiles along each side of the grid.
+    public static final int MIN_SIZE = 10;
+    public static final int MAX_SIZE = 1000;
+
+    /// Initialise controllers.
+    /// \param size number of tiles along each side of the grid.
+    public LargeLevel(TextureManager textureManager, Randomiser randomiser,
+                      Controller[] controllers, int size) {
+
+        super(textureManager, randomiser, controllers, size, size);
+
+    }
+
+    /// Get next level or null if game lost.
+    public GameManager getNext() {
+        return null;
+    }
+
+    /// Setup units and buildings.
+    protected void setup() {
+
+        int last = getGrid().getWidth() - 1;
+        int inset = (3 * getGrid().getWidth()) / 10;
+
+        addHq(new Coordinates(0, 0), Config.PLAYER1);
+        addHq(new Coordinates(last, last), Config.PLAYER2);
+
+        addSnake(new Coordinates(1, 0), Config.PLAYER1);
+        addSnake(new Coordinates(last - 1, last), Config.PLAYER2);
+
+        Coordinates[] flagPositions = {new Coordinates(0, last),
+                                       new Coordinates(last, 0),
+                                       new Coordinates(last - inset, inset),
+                                       new Coordinates(inset, last - inset),
+                                       new Coordinates(inset, 0),
+                                       new Coordinates(last - inset, last)};
+
+        for (int i = 0; i < flagPositions.length; ++i) {
+            addFlag(flagPositions[i]);
+        }
+
+    }
+
+    /// Initialise grid tiles.
+    protected void initTiles() {
+
+        int size = getGrid().getWidth();
+        int last = size - 1;
+
+        // Rows of roads and the band of water and mountains between them.
+        int upperRoad = size / 5;
+        int lowerRoad = last - upperRoad;
+        int waterStart = (2 * size) / 5;
+        int waterEnd = size - waterStart;
+        int mountainStart = (3 * size) / 10;
+        int mountainEnd = size - mountainStart;
+
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                addPlains(new Coordinates(i, j));
+            }
+        }
+
+        for (int i = 1; i < last; ++i) {
+            for (int j = waterStart; j < waterEnd; ++j) {
+                addWater(new Coordinates(i, j));
+            }
+        }
+
+        for (int i = mountainStart; i < mountainEnd; ++i) {
+            for (int j = waterStart; j < waterEnd; ++j) {
+                addMountain(new Coordinates(i, j));
+            }
+        }
+
+        for (int i = 1; i < last; ++i) {
+            addRoad(new Coordinates(i, upperRoad), true, 0);
+            addRoad(new Coordinates(i, lowerRoad), true, 0);
+        }
+
+        for (int j = upperRoad + 1; j < lowerRoad; ++j) {
+            addRoad(new Coordinates(0, j), true, 1);
+            addRoad(new Coordinates(last, j), true, 1);
+        }
+        addRoad(new Coordinates(0, upperRoad), false, 0);
+        addRoad(new Coordinates(last, upperRoad), false, 1);
+        addRoad(new Coordinates(0, lowerRoad), false, 3);
+        addRoad(new Coordinates(last, lowerRoad), false, 2);
+
+    }
+
+    /// Get text explaining the level.
+    protected String getInitialInfo() {
+
+        return "Take turns to try and destroy the enemy HQ!";
+
+    }
+
+    /// Get text explaining the result of the game.
+    protected String getEndInfo() {
+
+        if (getStatus(Config.PLAYER1).hasLost()) {
+            return "Player 2 Wins!";
+        } else {
+            return "Player 1 Wins!";
+        }
+
+    }
+
+}
@@ -7,15 +7,25 @@ import controller.AIController;
 import grid.Tile;
 import grid.Coordinates;
 import texture.Texture;
+import random.Randomiser;
 import config.Config;
 
 public class Level1 extends GameManager {
 
+    /// Initialise with player controller against AI controller.
+    public Level1(TextureManager textureManager, Randomiser randomiser) {
+
+        this(textureManager, randomiser,
+             new Controller[] {new PlayerController(),
+                               new AIController(randomiser.split())});
+
+    }
+
     /// Initialise controllers.
-    public Level1(TextureManager textureManager) {
+    public Level1(TextureManager textureManager, Randomiser randomiser,
+                  Controller[] controllers) {
 
-        super(textureManager, new Controller[] {new PlayerController(),
-                                                new AIController()});
+        super(textureManager, randomiser, controllers);
 
     }
 
@@ -25,7 +35,7 @@ public class Level1 extends GameManager {
         if (getStatus(Config.PLAYER1).hasLost()) {
             return null;
         }
-        return new Level2(mTextureManager);
+        return new Level2(mTextureManager, mRandomiser.split());
 
     }
 
@@ -49,8 +59,8 @@ public class Level1 extends GameManager {
     /// Initialise grid tiles.
     protected void initTiles() {
 
-        for (int i = 0; i < 10; ++i) {
-            for (int j = 0; j < 10; ++j) {
+        for (int i = 0; i < getGrid().getWidth(); ++i) {
+            for (int j = 0; j < getGrid().getHeight(); ++j) {
                 addPlains(new Coordinates(i, j));
             }
         }
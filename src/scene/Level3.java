@@ -8,15 +8,25 @@ import controller.Controller;
 import grid.Tile;
 import grid.Coordinates;
 import texture.Texture;
+import random.Randomiser;
 import config.Config;
 
 public class Level3 extends GameManager {
 
+    /// Initialise with player controller against AI controller.
+    public Level3(TextureManager textureManager, Randomiser randomiser) {
+
+        this(textureManager, randomiser,
+             new Controller[] {new PlayerController(),
+                               new AIController(randomiser.split())});
+
+    }
+
     /// Initialise controllers.
-    public Level3(TextureManager textureManager) {
+    public Level3(TextureManager textureManager, Randomiser randomiser,
+                  Controller[] controllers) {
 
-        super(textureManager, new Controller[] {new PlayerController(),
-                                                new AIController()});
+        super(textureManager, randomiser, controllers);
 
     }
 
@@ -53,8 +63,8 @@ public class Level3 extends GameManager {
     /// Initialise grid tiles.
     protected void initTiles() {
 
-        for (int i = 0; i < 10; ++i) {
-            for (int j = 0; j < 10; ++j) {
+        for (int i = 0; i < getGrid().getWidth(); ++i) {
+            for (int j = 0; j < getGrid().getHeight(); ++j) {
                 addPlains(new Coordinates(i, j));
             }
         }
@@ -142,6 +142,12 @@ public class PlayerStatus extends RenderableObject {
         mUnits.add(unit);
     }
 
+    /// Remove a unit or HQ from the player's control.
+    public void removeUnit(Unit unit) {
+        mHqs.remove(unit);
+        mUnits.remove(unit);
+    }
+
     public void addFlag(Flag flag) {
         mFlags.add(flag);
     }
@@ -3,6 +3,7 @@ package scene;
 import processing.core.PApplet;
 import processing.core.PVector;
 import texture.TextureManager;
+import random.Randomiser;
 import state.SceneState;
 import state.MainMenu;
 import state.Context;
@@ -15,9 +16,10 @@ public class Scene {
 
     /// Initialise scene.
     /// \param textureManager central storage of textures that can be used in the game.
-    public Scene(TextureManager textureManager) {
+    /// \param randomiser random number generator to split game generators from.
+    public Scene(TextureManager textureManager, Randomiser randomiser) {
 
-        mState = new MainMenu(new Context(this, textureManager));
+        mState = new MainMenu(new Context(this, textureManager, randomiser));
 
     }
 
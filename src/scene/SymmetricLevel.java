@@ -5,14 +5,16 @@ import controller.Controller;
 import grid.Tile;
 import grid.Coordinates;
 import texture.Texture;
+import random.Randomiser;
 import config.Config;
 
 public class SymmetricLevel extends GameManager {
 
     /// Initialise controllers.
-    public SymmetricLevel(TextureManager textureManager, Controller[] controllers) {
+    public SymmetricLevel(TextureManager textureManager, Randomiser randomiser,
+                          Controller[] controllers) {
 
-        super(textureManager, controllers);
+        super(textureManager, randomiser, controllers);
 
     }
 
@@ -46,8 +48,8 @@ public class SymmetricLevel extends GameManager {
     /// Initialise grid tiles.
     protected void initTiles() {
 
-        for (int i = 0; i < 10; ++i) {
-            for (int j = 0; j < 10; ++j) {
+        for (int i = 0; i < getGrid().getWidth(); ++i) {
+            for (int j = 0; j < getGrid().getHeight(); ++j) {
                 addPlains(new Coordinates(i, j));
             }
         }
@@ -0,0 +1,167 @@
+package simulation;
+
+import java.lang.String;
+import scene.GameManager;
+import grid.Grid;
+import grid.Coordinates;
+import unit.Unit;
+import unit.HeadQuarters;
+
+/// Packed representation of the actions a player can take, mirroring the GameManager move, attack,
+/// capture, buy and end turn actions. Actions are packed into a long so that they can be generated,
+/// stored and applied to a GameState without allocating.
+///
+/// Bits 0-3 hold the kind of action, bits 4-7 the unit type bought, bits 8-31 the source tile index
+/// and bits 32-55 the target tile index.
+public final class Action {
+
+    // Action kinds.
+    public static final int MOVE = 0;
+    public static final int ATTACK = 1;
+    public static final int CAPTURE = 2;
+    public static final int BUY = 3;
+    public static final int END_TURN = 4;
+
+    /// Mask for tile indices.
+    private static final long INDEX_MASK = 0xFFFFFFL;
+
+    /// Actions only hold static helpers.
+    private Action() {}
+
+    /// Create a move action.
+    /// \param source index of tile with unit to move.
+    /// \param target index of tile to move to.
+    public static long move(int source, int target) {
+        return pack(MOVE, 0, source, target);
+    }
+
+    /// Create an attack action.
+    /// \param attacker index of tile with attacking unit.
+    /// \param defender index of tile with unit to attack.
+    public static long attack(int attacker, int defender) {
+        return pack(ATTACK, 0, attacker, defender);
+    }
+
+    /// Create a capture action.
+    /// \param index index of tile with unit and building to capture.
+    public static long capture(int index) {
+        return pack(CAPTURE, 0, index, index);
+    }
+
+    /// Create a buy action.
+    /// \param hq index of tile with HQ buying the unit.
+    /// \param target index of tile to place new unit on.
+    /// \param type type of unit to buy.
+    public static long buy(int hq, int target, int type) {
+        return pack(BUY, type, hq, target);
+    }
+
+    /// Create an end turn action.
+    public static long endTurn() {
+        return pack(END_TURN, 0, 0, 0);
+    }
+
+    /// Get the kind of an action.
+    public static int getKind(long action) {
+        return (int)(action & 0xF);
+    }
+
+    /// Get the unit type bought by a buy action.
+    public static int getUnitType(long action) {
+        return (int)((action >>> 4) & 0xF);
+    }
+
+    /// Get the index of the tile the action is carried out from.
+    public static int getSource(long action) {
+        return (int)((action >>> 8) & INDEX_MASK);
+    }
+
+    /// Get the index of the tile the action targets.
+    public static int getTarget(long action) {
+        return (int)((action >>> 32) & INDEX_MASK);
+    }
+
+    /// Carry out an action in a game. The action must be legal in the game's current state.
+    /// \param game game to carry out action in.
+    /// \param action action to carry out.
+    public static void execute(GameManager game, long action) {
+
+        Grid grid = game.getGrid();
+        Coordinates source = grid.getCoords(getSource(action));
+        Coordinates target = grid.getCoords(getTarget(action));
+        switch (getKind(action)) {
+            case MOVE:
+                // Moves follow the paths found when getting destinations.
+                grid.getTile(source).getUnit().getDestinationSet();
+                game.move(source, target);
+                break;
+            case ATTACK:
+                game.attack(source, target);
+                break;
+            case CAPTURE:
+                game.capture(source);
+                break;
+            case BUY:
+                buy(game, (HeadQuarters)grid.getTile(source).getUnit(), target, getUnitType(action));
+                break;
+            default:
+                game.endTurn();
+                break;
+        }
+
+    }
+
+    /// Get a readable description of an action.
+    /// \param action the action to describe.
+    /// \param width width of the grid the action is for.
+    public static String toString(long action, int width) {
+
+        int source = getSource(action);
+        int target = getTarget(action);
+        String from = "(" + (source % width) + ", " + (source / width) + ")";
+        String to = "(" + (target % width) + ", " + (target / width) + ")";
+        switch (getKind(action)) {
+            case MOVE:
+                return "Move " + from + " to " + to;
+            case ATTACK:
+                return "Attack " + to + " from " + from;
+            case CAPTURE:
+                return "Capture " + from;
+            case BUY:
+                return "Buy type " + getUnitType(action) + " at " + to;
+            default:
+                return "End turn";
+        }
+
+    }
+
+    /// Pack the parts of an action.
+    private static long pack(int kind, int type, int source, int target) {
+
+        assert source <= INDEX_MASK && target <= INDEX_MASK;
+        return kind | ((long)type << 4) | ((long)source << 8) | ((long)target << 32);
+
+    }
+
+    /// Buy a unit of a type.
+    private static void buy(GameManager game, HeadQuarters hq, Coordinates coords, int type) {
+
+        switch (type) {
+            case Unit.SNAKE_TYPE:
+                game.buySnake(hq, coords);
+                break;
+            case Unit.WHEEL_SNAKE_TYPE:
+                game.buyWheelSnake(hq, coords);
+                break;
+            case Unit.TANK_SNAKE_TYPE:
+                game.buyTankSnake(hq, coords);
+                break;
+            default:
+                assert type == Unit.JET_SNAKE_TYPE;
+                game.buyJetSnake(hq, coords);
+                break;
+        }
+
+    }
+
+}
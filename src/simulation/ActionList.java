@@ -0,0 +1,70 @@
+package simulation;
+
+import java.util.Arrays;
+
+/// Growable list of packed actions that can be cleared and refilled without allocating.
+public final class ActionList {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /// Packed actions.
+    private long[] mActions;
+
+    /// Number of actions in the list.
+    private int mSize;
+
+    /// Initialise empty list.
+    public ActionList() {
+
+        mActions = new long[INITIAL_CAPACITY];
+        mSize = 0;
+
+    }
+
+    /// Add an action to the end of the list.
+    public void add(long action) {
+
+        if (mSize == mActions.length) {
+            mActions = Arrays.copyOf(mActions, mActions.length * 2);
+        }
+        mActions[mSize++] = action;
+
+    }
+
+    /// Get the action at an index.
+    public long get(int index) {
+        assert index < mSize;
+        return mActions[index];
+    }
+
+    /// Replace the action at an index.
+    public void set(int index, long action) {
+        assert index < mSize;
+        mActions[index] = action;
+    }
+
+    /// Swap the actions at two indices.
+    public void swap(int i, int j) {
+
+        long temp = mActions[i];
+        mActions[i] = mActions[j];
+        mActions[j] = temp;
+
+    }
+
+    /// Get the number of actions in the list.
+    public int size() {
+        return mSize;
+    }
+
+    /// Check whether the list is empty.
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /// Remove all actions from the list.
+    public void clear() {
+        mSize = 0;
+    }
+
+}
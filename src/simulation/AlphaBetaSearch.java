@@ -0,0 +1,339 @@
+package simulation;
+
+import java.lang.Math;
+import java.lang.System;
+import java.util.concurrent.atomic.AtomicBoolean;
+import unit.Unit;
+
+/// Iterative deepening alpha-beta search over single actions. Each ply applies one action, so
+/// a player's turn spans many plies and scores are only negated when the active player changes.
+///
+/// Actions are ordered with the best action stored in the transposition table first, then
+/// captures, attacks that destroy their target, other attacks by damage, purchases by cost,
+/// moves by how much closer they bring the unit to an objective and ending the turn last.
+///
+/// A search stops once it has visited a number of nodes or passed a deadline, and returns the
+/// best action of the deepest completed iteration. The first iteration always completes.
+public final class AlphaBetaSearch {
+
+    /// Default number of transposition table slots.
+    private static final int TABLE_CAPACITY = 1 << 18;
+
+    /// Deepest iteration searched.
+    private static final int MAX_DEPTH = 32;
+
+    /// Number of nodes visited between deadline checks, counting leaves.
+    private static final int DEADLINE_INTERVAL = 256;
+
+    /// Score beyond any reachable score.
+    private static final int INFINITY = Evaluator.WIN_SCORE + 1;
+
+    // Ordering priorities of each kind of action.
+    private static final int TABLE_PRIORITY = 4000000;
+    private static final int CAPTURE_PRIORITY = 3000000;
+    private static final int KILL_PRIORITY = 2000000;
+    private static final int ATTACK_PRIORITY = 1000000;
+    private static final int BUY_PRIORITY = 500000;
+    private static final int MOVE_PRIORITY = 100000;
+
+    /// Value of destroying an HQ when ordering attacks.
+    private static final int HQ_KILL_VALUE = 100000;
+
+    /// Cache of scores and best actions.
+    private final TranspositionTable mTable;
+
+    /// Actions and their ordering priorities at each ply.
+    private final ActionList[] mActions;
+    private final int[][] mPriorities;
+
+    /// State being searched.
+    private GameState mState;
+
+    /// Evaluator for the current search.
+    private Evaluator mEvaluator;
+
+    /// Node and time budget of the current search.
+    private long mNodeBudget;
+    private long mDeadline;
+
+    /// Node count at which the clock is next read. Leaves do not check the budget, so checks
+    /// happen at the first interior node at or past it.
+    private long mNextDeadlineCheck;
+
+    /// Whether the current iteration ran out of budget.
+    private boolean mAborted;
+
+    /// Set by another thread to stop the current search.
+    private AtomicBoolean mStop;
+
+    /// Number of nodes visited in the current search.
+    private long mNodes;
+
+    /// Time taken by the current search in nanoseconds.
+    private long mElapsed;
+
+    /// Deepest iteration completed in the current search.
+    private int mDepth;
+
+    /// Score of the best action for the active player at the root.
+    private int mScore;
+
+    /// Initialise search.
+    public AlphaBetaSearch() {
+
+        mTable = new TranspositionTable(TABLE_CAPACITY);
+        mActions = new ActionList[MAX_DEPTH + 1];
+        mPriorities = new int[MAX_DEPTH + 1][];
+        for (int i = 0; i <= MAX_DEPTH; ++i) {
+            mActions[i] = new ActionList();
+            mPriorities[i] = new int[0];
+        }
+        mNodes = 0;
+        mElapsed = 0;
+        mDepth = 0;
+        mScore = 0;
+
+    }
+
+    /// Find the best action for the active player.
+    /// \param state state to search, restored to its original state afterwards.
+    /// \param nodeBudget number of nodes after which the search stops.
+    /// \param timeBudget nanoseconds after which the search stops or 0 for no limit.
+    /// \param stop set by another thread to stop the search as if its budget had run out.
+    /// \return the best action found.
+    public long search(GameState state, long nodeBudget, long timeBudget, AtomicBoolean stop) {
+
+        long startTime = System.nanoTime();
+        mState = state;
+        mEvaluator = new Evaluator(state);
+        mNodeBudget = nodeBudget;
+        mDeadline = (timeBudget > 0) ? startTime + timeBudget : 0;
+        mNodes = 0;
+        mNextDeadlineCheck = DEADLINE_INTERVAL;
+        mDepth = 0;
+        mStop = stop;
+        mTable.nextSearch();
+
+        // Ending the turn needs no search when there is nothing else to do.
+        ActionList rootActions = mActions[0];
+        rootActions.clear();
+        state.getActions(rootActions);
+        long best = Action.endTurn();
+        mScore = 0;
+        int maxDepth = (rootActions.size() > 1) ? MAX_DEPTH : 0;
+
+        // Leaves are evaluated without checking the budget, so the first iteration completes.
+        for (int depth = 1; depth <= maxDepth; ++depth) {
+
+            mAborted = false;
+            int score = search(depth, -INFINITY, INFINITY, 0);
+            if (mAborted) {
+                break;
+            }
+            best = mTable.getAction(state.getHash());
+            mScore = score;
+            mDepth = depth;
+
+            // Later iterations cannot change a forced result.
+            boolean decided = Math.abs(score) >= Evaluator.WIN_SCORE - MAX_DEPTH;
+            boolean late = mDeadline != 0 && System.nanoTime() >= mDeadline;
+            if (decided || late || stop.get() || mNodes >= mNodeBudget) {
+                break;
+            }
+
+        }
+        mElapsed = System.nanoTime() - startTime;
+        mState = null;
+        mEvaluator = null;
+        mStop = null;
+        return best;
+
+    }
+
+    /// Get the number of nodes visited by the last search.
+    public long getNodes() {
+        return mNodes;
+    }
+
+    /// Get the time taken by the last search in nanoseconds.
+    public long getElapsedNanos() {
+        return mElapsed;
+    }
+
+    /// Get the deepest iteration completed by the last search.
+    public int getDepth() {
+        return mDepth;
+    }
+
+    /// Get the score of the best action found by the last search for the player who chose it.
+    public int getScore() {
+        return mScore;
+    }
+
+    /// Search a state to a depth.
+    /// \param depth number of further actions to search.
+    /// \param alpha score the active player is already guaranteed.
+    /// \param beta score above which the other player avoids this state.
+    /// \param ply number of actions since the root.
+    /// \return the score of the state for its active player.
+    private int search(int depth, int alpha, int beta, int ply) {
+
+        ++mNodes;
+        int player = mState.getActivePlayer();
+        if (mState.isGameOver()) {
+            return Evaluator.getTerminalScore(mState, player, ply);
+        }
+        if (depth == 0) {
+            return mEvaluator.evaluate(mState, player);
+        }
+        if (ply > 0 && isOverBudget()) {
+            mAborted = true;
+            return 0;
+        }
+
+        // Use cached scores that are deep enough to settle this state.
+        long hash = mState.getHash();
+        long detail = mState.getDetailHash();
+        int slot = mTable.findScore(hash, detail, depth);
+        if (slot >= 0 && ply > 0) {
+            int score = mTable.getScore(slot, ply);
+            int bound = mTable.getBound(slot);
+            if (bound == TranspositionTable.EXACT ||
+                (bound == TranspositionTable.LOWER && score >= beta) ||
+                (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        ActionList actions = mActions[ply];
+        actions.clear();
+        mState.getActions(actions);
+        int[] priorities = prioritise(actions, ply, mTable.getAction(hash));
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        long bestAction = TranspositionTable.NO_ACTION;
+        for (int i = 0; i < actions.size(); ++i) {
+
+            long action = nextAction(actions, priorities, i);
+            long record = mState.apply(action);
+            int score;
+            if (mState.getActivePlayer() == player) {
+                score = search(depth - 1, alpha, beta, ply + 1);
+            } else {
+                score = -search(depth - 1, -beta, -alpha, ply + 1);
+            }
+            mState.undo(action, record);
+            if (mAborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestAction = action;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+
+        }
+
+        int bound = TranspositionTable.EXACT;
+        if (bestScore <= originalAlpha) {
+            bound = TranspositionTable.UPPER;
+        } else if (bestScore >= beta) {
+            bound = TranspositionTable.LOWER;
+        }
+        mTable.store(hash, detail, depth, ply, bestScore, bound, bestAction);
+        return bestScore;
+
+    }
+
+    /// Check whether the node or time budget has run out or the search has been stopped.
+    private boolean isOverBudget() {
+
+        if (mNodes >= mNodeBudget || mStop.get()) {
+            return true;
+        }
+        if (mDeadline == 0 || mNodes < mNextDeadlineCheck) {
+            return false;
+        }
+        mNextDeadlineCheck = mNodes + DEADLINE_INTERVAL;
+        return System.nanoTime() >= mDeadline;
+
+    }
+
+    /// Compute the ordering priority of each action.
+    /// \param actions actions to prioritise.
+    /// \param ply ply the actions are at.
+    /// \param tableAction best action stored for the state or NO_ACTION.
+    /// \return priority of each action.
+    private int[] prioritise(ActionList actions, int ply, long tableAction) {
+
+        if (mPriorities[ply].length < actions.size()) {
+            mPriorities[ply] = new int[actions.size() * 2];
+        }
+        int[] priorities = mPriorities[ply];
+        for (int i = 0; i < actions.size(); ++i) {
+            long action = actions.get(i);
+            priorities[i] = (action == tableAction) ? TABLE_PRIORITY : getPriority(action);
+        }
+        return priorities;
+
+    }
+
+    /// Get the ordering priority of an action.
+    private int getPriority(long action) {
+
+        int source = Action.getSource(action);
+        int target = Action.getTarget(action);
+        switch (Action.getKind(action)) {
+            case Action.CAPTURE:
+                return CAPTURE_PRIORITY;
+            case Action.ATTACK:
+                int damage = mState.getAttackDamage(source, target);
+                if (damage >= mState.getUnitHp(target)) {
+                    int type = mState.getUnitType(target);
+                    int value = (type == Unit.HQ_TYPE) ? HQ_KILL_VALUE : GameState.getCost(type);
+                    return KILL_PRIORITY + value;
+                }
+                return ATTACK_PRIORITY + damage;
+            case Action.BUY:
+                return BUY_PRIORITY + GameState.getCost(Action.getUnitType(action));
+            case Action.MOVE:
+                int player = mState.getUnitOwner(source);
+                int moveType = GameState.getMoveType(mState.getUnitType(source));
+                return MOVE_PRIORITY + mEvaluator.getDistance(player, moveType, source) -
+                       mEvaluator.getDistance(player, moveType, target);
+            default:
+                return 0;
+        }
+
+    }
+
+    /// Move the highest priority action not yet searched to a position. Actions are only sorted
+    /// as far as they are searched, so cut-offs skip sorting the rest.
+    /// \param actions actions at the ply.
+    /// \param priorities priority of each action.
+    /// \param position number of actions already searched.
+    /// \return the action moved to the position.
+    private long nextAction(ActionList actions, int[] priorities, int position) {
+
+        int best = position;
+        for (int i = position + 1; i < actions.size(); ++i) {
+            if (priorities[i] > priorities[best]) {
+                best = i;
+            }
+        }
+        actions.swap(position, best);
+        int priority = priorities[position];
+        priorities[position] = priorities[best];
+        priorities[best] = priority;
+        return actions.get(position);
+
+    }
+
+}
@@ -0,0 +1,150 @@
+package simulation;
+
+import grid.FlowField;
+import unit.Unit;
+import config.Config;
+
+/// Static evaluation of game states for searches. A player's score is the value of their units
+/// scaled by HP, their points, the flags they own and how close each unit is to an objective.
+///
+/// Objectives are the enemy HQs and the buildings a player does not own when the evaluator is
+/// created. Terrain move costs to the nearest objective are computed once for every player and
+/// move type, so an evaluator is made at the root of a search and shared by every state in it.
+public final class Evaluator {
+
+    /// Score of a won game, reduced by the number of plies taken to win so faster wins are
+    /// preferred.
+    public static final int WIN_SCORE = 1000000;
+
+    /// Value of an HQ at full HP.
+    private static final int HQ_VALUE = 5000;
+
+    /// Value of owning a flag on top of the points it earns.
+    private static final int FLAG_VALUE = 1000;
+
+    /// Score for each move cost closer to an objective a unit is.
+    private static final int DISTANCE_WEIGHT = 20;
+
+    /// Distance beyond which units score nothing for approaching objectives.
+    private static final int MAX_DISTANCE = 40;
+
+    /// Terrain move cost from each tile to the nearest objective of each player for each move
+    /// type, indexed by [player][moveType][tile]. MAX_DISTANCE if no objective can be reached.
+    private final int[][][] mDistances;
+
+    /// Compute objective distances for a state.
+    /// \param state state at the root of the search.
+    public Evaluator(GameState state) {
+
+        mDistances = new int[Config.PLAYER_COUNT + 1][Unit.MOVE_TYPE_COUNT][];
+        int[] targets = new int[state.getTileCount()];
+        for (int player = 1; player <= Config.PLAYER_COUNT; ++player) {
+
+            int targetCount = 0;
+            for (int i = 0; i < state.getTileCount(); ++i) {
+                boolean enemyHq = state.getUnitType(i) == Unit.HQ_TYPE &&
+                                  state.getUnitOwner(i) != player;
+                boolean building = state.hasBuilding(i) && state.getBuildingOwner(i) != player;
+                if (enemyHq || building) {
+                    targets[targetCount++] = i;
+                }
+            }
+            for (int moveType = 0; moveType < Unit.MOVE_TYPE_COUNT; ++moveType) {
+                mDistances[player][moveType] =
+                    computeDistances(state, moveType, targets, targetCount, MAX_DISTANCE, 0);
+            }
+
+        }
+
+    }
+
+    /// Get the terrain move cost from a tile to the nearest objective of a player.
+    /// \return the move cost, at most MAX_DISTANCE.
+    public int getDistance(int player, int moveType, int index) {
+        return mDistances[player][moveType][index];
+    }
+
+    /// Evaluate a state for a player.
+    /// \param state state to evaluate.
+    /// \param player id of player to evaluate for.
+    /// \return the player's score minus the scores of the other players.
+    public int evaluate(GameState state, int player) {
+
+        int score = 0;
+        for (int i = 0; i < state.getTileCount(); ++i) {
+
+            int type = state.getUnitType(i);
+            if (type != GameState.NO_UNIT) {
+                int value = getUnitValue(state, i, type);
+                score += (state.getUnitOwner(i) == player) ? value : -value;
+            }
+            int buildingOwner = state.getBuildingOwner(i);
+            if (buildingOwner > 0) {
+                score += (buildingOwner == player) ? FLAG_VALUE : -FLAG_VALUE;
+            }
+
+        }
+        for (int other = 1; other <= Config.PLAYER_COUNT; ++other) {
+            score += (other == player) ? state.getPoints(other) : -state.getPoints(other);
+        }
+        return score;
+
+    }
+
+    /// Get the score of a finished game for a player.
+    /// \param state finished state.
+    /// \param player id of player to score for.
+    /// \param ply number of actions since the root of the search.
+    public static int getTerminalScore(GameState state, int player, int ply) {
+
+        int winner = state.getWinner();
+        if (winner == 0) {
+            return 0;
+        }
+        return (winner == player) ? WIN_SCORE - ply : ply - WIN_SCORE;
+
+    }
+
+    /// Get the value of a unit to its owner.
+    private int getUnitValue(GameState state, int index, int type) {
+
+        int hp = state.getUnitHp(index);
+        if (type == Unit.HQ_TYPE) {
+            return HQ_VALUE * hp / Unit.BASE_HITPOINTS;
+        }
+        int moveType = GameState.getMoveType(type);
+        int distance = mDistances[state.getUnitOwner(index)][moveType][index];
+        return GameState.getCost(type) * hp / Unit.BASE_HITPOINTS +
+               DISTANCE_WEIGHT * (MAX_DISTANCE - distance);
+
+    }
+
+    /// Compute move costs to the nearest target with the same reverse Dijkstra search as grid
+    /// flow fields.
+    /// \param state state to compute costs over.
+    /// \param moveType move type of units following the costs.
+    /// \param targets indices of target tiles.
+    /// \param targetCount number of targets used from the start of the array.
+    /// \param maxDistance cost given to tiles further away or unable to reach a target.
+    /// \param player id of player whose units follow the costs. Units of other players block
+    ///               movement other than onto targets. 0 to consider terrain alone.
+    static int[] computeDistances(GameState state, int moveType, int[] targets,
+                                  int targetCount, int maxDistance, int player) {
+
+        FlowField.Tiles tiles = new FlowField.Tiles() {
+
+            public int getMoveCost(int index) {
+                return state.getMoveCost(moveType, index);
+            }
+
+            public boolean isBlocked(int index) {
+                return player != 0 && state.hasUnit(index) && state.getUnitOwner(index) != player;
+            }
+
+        };
+        return FlowField.computeCosts(state.getNeighbourOffsets(), state.getNeighbours(), tiles,
+                                      targets, targetCount, maxDistance);
+
+    }
+
+}
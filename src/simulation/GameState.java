@@ -0,0 +1,966 @@
+package simulation;
+
+import java.lang.System;
+import java.util.Arrays;
+import scene.GameManager;
+import grid.Grid;
+import grid.Tile;
+import grid.Coordinates;
+import unit.Unit;
+import unit.HeadQuarters;
+import unit.Snake;
+import unit.WheelSnake;
+import unit.TankSnake;
+import unit.JetSnake;
+import unit.CombatTable;
+import terrain.Terrain;
+import building.Building;
+import building.Flag;
+import config.Config;
+import collection.LongMinHeap;
+
+/// Compact snapshot of a game stored in flat primitive arrays indexed by tile. The board (terrain
+/// and building positions) never changes so it is shared between copies, while the unit, building
+/// owner and player state is copied. Copying into an existing state does not allocate, allowing
+/// searches and simulations to clone states cheaply.
+///
+/// Actions can be applied to a state and later undone, allowing a search to explore many lines of
+/// play on one state. Undo information for ending turns is kept on an internal stack so undos must
+/// be carried out in the reverse order of applies.
+///
+/// A Zobrist hash of the units, building owners, active player and points is kept up to date by
+/// every change so states can be compared and cached cheaply. It buckets HP and points, so a
+/// detail hash of their exact values is kept alongside it.
+///
+/// Tiles are indexed by y * width + x.
+public final class GameState {
+
+    /// Unit type of tiles without a unit.
+    public static final int NO_UNIT = -1;
+
+    /// Building owner of tiles without a building.
+    public static final int NO_BUILDING = -1;
+
+    // Unit flags.
+    public static final int MOVED = 1;
+    public static final int ACTED = 2;
+    public static final int INACTIVE = MOVED | ACTED;
+
+    // Unit statistics indexed by unit type.
+    private static final int[] ATTACK = {HeadQuarters.ATTACK, Snake.ATTACK, WheelSnake.ATTACK,
+                                         TankSnake.ATTACK, JetSnake.ATTACK};
+    private static final float[] DEFENSE = {HeadQuarters.DEFENSE, Snake.DEFENSE,
+                                            WheelSnake.DEFENSE, TankSnake.DEFENSE,
+                                            JetSnake.DEFENSE};
+    private static final int[] MOVE_RANGE = {HeadQuarters.MOVE_RANGE, Snake.MOVE_RANGE,
+                                             WheelSnake.MOVE_RANGE, TankSnake.MOVE_RANGE,
+                                             JetSnake.MOVE_RANGE};
+    private static final int[] MOVE_TYPE = {Unit.STANDARD_MOVE, Unit.STANDARD_MOVE,
+                                            Unit.VEHICLE_MOVE, Unit.VEHICLE_MOVE,
+                                            Unit.AIR_MOVE};
+    private static final int[] COST = {0, Snake.COST, WheelSnake.COST, TankSnake.COST, JetSnake.COST};
+
+    // Board dimensions.
+    private final int mWidth;
+    private final int mHeight;
+
+    /// Terrain type of each tile.
+    private final byte[] mTerrain;
+
+    /// Move cost of each tile for each move type, < 0 if impassable.
+    private final byte[][] mMoveCosts;
+
+    /// Terrain cover multiplier of each tile.
+    private final float[] mCover;
+
+    /// Attack boost multiplier of building on each tile.
+    private final float[] mBoost;
+
+    /// Protection multiplier of building on each tile.
+    private final float[] mProtection;
+
+    /// Neighbour offsets and neighbour indices of each tile, shared with the grid.
+    private final int[] mNeighbourOffsets;
+    private final int[] mNeighbours;
+
+    /// Keys for hashing states on the board.
+    private final Zobrist mZobrist;
+
+    /// Type of unit on each tile or NO_UNIT.
+    private final byte[] mUnitType;
+
+    /// Owner of unit on each tile.
+    private final byte[] mUnitOwner;
+
+    /// HP of unit on each tile.
+    private final short[] mUnitHp;
+
+    /// MOVED and ACTED flags of unit on each tile.
+    private final byte[] mUnitFlags;
+
+    /// Owner of building on each tile or NO_BUILDING.
+    private final byte[] mBuildingOwner;
+
+    /// Points of each player, indexed by player id.
+    private final int[] mPoints;
+
+    /// Id of player who's turn it is.
+    private int mActivePlayer;
+
+    /// Number of turns that have been ended.
+    private int mTurn;
+
+    /// Number of HQs each player has, indexed by player id.
+    private final int[] mHqCount;
+
+    /// Zobrist hash of the state.
+    private long mHash;
+
+    /// Hash of the exact HP of every unit and points of every player.
+    private long mDetailHash;
+
+    /// Stack of packed tile index and flags of units changed by ending turns.
+    private int[] mUndoStack;
+
+    /// Number of entries on the undo stack.
+    private int mUndoSize;
+
+    // Scratch buffers for move searches, allocated on first use.
+    private int[] mReachCost;
+    private int[] mReachMark;
+    private int mReachStamp;
+    private LongMinHeap mHeap;
+
+    /// Create a snapshot of a game.
+    /// \param game the game to snapshot.
+    public GameState(GameManager game) {
+
+        Grid grid = game.getGrid();
+        mWidth = grid.getWidth();
+        mHeight = grid.getHeight();
+        int tiles = mWidth * mHeight;
+
+        mTerrain = new byte[tiles];
+        mMoveCosts = new byte[Unit.MOVE_TYPE_COUNT][tiles];
+        mCover = new float[tiles];
+        mBoost = new float[tiles];
+        mProtection = new float[tiles];
+        mZobrist = new Zobrist(tiles);
+        mNeighbourOffsets = grid.getNeighbourOffsets();
+        mNeighbours = grid.getNeighbours();
+
+        mUnitType = new byte[tiles];
+        mUnitOwner = new byte[tiles];
+        mUnitHp = new short[tiles];
+        mUnitFlags = new byte[tiles];
+        mBuildingOwner = new byte[tiles];
+        mPoints = new int[Config.PLAYER_COUNT + 1];
+        mHqCount = new int[Config.PLAYER_COUNT + 1];
+        mUndoStack = new int[0];
+        mUndoSize = 0;
+        Arrays.fill(mUnitType, (byte)NO_UNIT);
+
+        // Record board.
+        for (int i = 0; i < tiles; ++i) {
+
+            Tile tile = grid.getTile(i);
+            Terrain terrain = tile.getTerrain();
+            mTerrain[i] = (byte)terrain.getType();
+            for (int moveType = 0; moveType < Unit.MOVE_TYPE_COUNT; ++moveType) {
+                mMoveCosts[moveType][i] = (byte)terrain.getMoveCost(moveType);
+            }
+            mCover[i] = terrain.getCover();
+            Building building = tile.getBuilding();
+            if (building != null) {
+                mBoost[i] = building.getBoost();
+                mProtection[i] = building.getProtection();
+            }
+
+        }
+
+        read(game);
+
+    }
+
+    /// Create a state sharing the board of another state.
+    /// \param other state to share board with and copy.
+    private GameState(GameState other) {
+
+        mWidth = other.mWidth;
+        mHeight = other.mHeight;
+        mTerrain = other.mTerrain;
+        mMoveCosts = other.mMoveCosts;
+        mCover = other.mCover;
+        mBoost = other.mBoost;
+        mProtection = other.mProtection;
+        mZobrist = other.mZobrist;
+        mNeighbourOffsets = other.mNeighbourOffsets;
+        mNeighbours = other.mNeighbours;
+
+        int tiles = mWidth * mHeight;
+        mUnitType = new byte[tiles];
+        mUnitOwner = new byte[tiles];
+        mUnitHp = new short[tiles];
+        mUnitFlags = new byte[tiles];
+        mBuildingOwner = new byte[tiles];
+        mPoints = new int[other.mPoints.length];
+        mHqCount = new int[other.mHqCount.length];
+        mUndoStack = new int[0];
+        mUndoSize = 0;
+        copyFrom(other);
+
+    }
+
+    /// Get a copy of the state.
+    /// \return a new state sharing this state's board.
+    public GameState copy() {
+        return new GameState(this);
+    }
+
+    /// Overwrite this state with another state on the same board without allocating.
+    /// \param other state to copy.
+    public void copyFrom(GameState other) {
+
+        assert other.mTerrain == mTerrain;
+        System.arraycopy(other.mUnitType, 0, mUnitType, 0, mUnitType.length);
+        System.arraycopy(other.mUnitOwner, 0, mUnitOwner, 0, mUnitOwner.length);
+        System.arraycopy(other.mUnitHp, 0, mUnitHp, 0, mUnitHp.length);
+        System.arraycopy(other.mUnitFlags, 0, mUnitFlags, 0, mUnitFlags.length);
+        System.arraycopy(other.mBuildingOwner, 0, mBuildingOwner, 0, mBuildingOwner.length);
+        System.arraycopy(other.mPoints, 0, mPoints, 0, mPoints.length);
+        System.arraycopy(other.mHqCount, 0, mHqCount, 0, mHqCount.length);
+        mActivePlayer = other.mActivePlayer;
+        mTurn = other.mTurn;
+        mHash = other.mHash;
+        mDetailHash = other.mDetailHash;
+        mUndoSize = 0;
+
+    }
+
+    /// Overwrite the units, building owners and player state with those of a game played on
+    /// the same board.
+    /// \param game the game to read.
+    public void read(GameManager game) {
+
+        Grid grid = game.getGrid();
+        assert grid.getWidth() == mWidth && grid.getHeight() == mHeight;
+        for (int i = 0; i < mUnitType.length; ++i) {
+
+            Tile tile = grid.getTile(i);
+            Unit unit = tile.getUnit();
+            if (unit == null || unit.isDestroyed()) {
+                clearUnit(i);
+            } else {
+                int flags = (unit.hasMoved() ? MOVED : 0) | (unit.hasActed() ? ACTED : 0);
+                setUnit(i, unit.getType(), unit.getPlayer(), unit.getHitPoints(), flags);
+            }
+
+            Building building = tile.getBuilding();
+            mBuildingOwner[i] = (byte)(building == null ? NO_BUILDING : building.getOwner());
+
+        }
+
+        for (int player = 1; player < mPoints.length; ++player) {
+            mPoints[player] = game.getStatus(player).getPoints();
+        }
+        mActivePlayer = game.getActivePlayer();
+        mTurn = game.getTurn();
+        mHash = computeHash();
+        mDetailHash = computeDetailHash();
+        mUndoSize = 0;
+
+    }
+
+    /// Get the number of tiles along the x axis.
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /// Get the number of tiles along the y axis.
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /// Get the total number of tiles.
+    public int getTileCount() {
+        return mUnitType.length;
+    }
+
+    /// Get the index of the tile at a position.
+    public int getIndex(int x, int y) {
+        return y * mWidth + x;
+    }
+
+    /// Get the index of the tile at coordinates.
+    public int getIndex(Coordinates coords) {
+        return getIndex(coords.x, coords.y);
+    }
+
+    /// Get the x coordinate of a tile.
+    public int getX(int index) {
+        return index % mWidth;
+    }
+
+    /// Get the y coordinate of a tile.
+    public int getY(int index) {
+        return index / mWidth;
+    }
+
+    /// Get the coordinates of a tile.
+    public Coordinates getCoords(int index) {
+        return new Coordinates(getX(index), getY(index));
+    }
+
+    /// Get the start of each tile's neighbours in the neighbours array, shared with the grid.
+    public int[] getNeighbourOffsets() {
+        return mNeighbourOffsets;
+    }
+
+    /// Get the indices of the neighbours of every tile, shared with the grid.
+    public int[] getNeighbours() {
+        return mNeighbours;
+    }
+
+    /// Get the terrain type of a tile.
+    public int getTerrainType(int index) {
+        return mTerrain[index];
+    }
+
+    /// Get the cost of moving onto a tile for a move type.
+    /// \return the move cost or < 0 if impassable.
+    public int getMoveCost(int moveType, int index) {
+        return mMoveCosts[moveType][index];
+    }
+
+    /// Get the terrain cover multiplier of a tile.
+    public float getCover(int index) {
+        return mCover[index];
+    }
+
+    /// Check whether a tile has a building.
+    public boolean hasBuilding(int index) {
+        return mBuildingOwner[index] != NO_BUILDING;
+    }
+
+    /// Get the owner of the building on a tile.
+    /// \return the owner, 0 if unowned or NO_BUILDING if there is no building.
+    public int getBuildingOwner(int index) {
+        return mBuildingOwner[index];
+    }
+
+    /// Set the owner of the building on a tile.
+    public void setBuildingOwner(int index, int owner) {
+
+        assert hasBuilding(index);
+        mHash ^= mZobrist.building(index, mBuildingOwner[index]) ^ mZobrist.building(index, owner);
+        mBuildingOwner[index] = (byte)owner;
+
+    }
+
+    /// Get the attack boost multiplier of the building on a tile.
+    public float getBoost(int index) {
+        return mBoost[index];
+    }
+
+    /// Get the protection multiplier of the building on a tile.
+    public float getProtection(int index) {
+        return mProtection[index];
+    }
+
+    /// Get the type of unit on a tile.
+    /// \return the unit type or NO_UNIT if the tile is empty.
+    public int getUnitType(int index) {
+        return mUnitType[index];
+    }
+
+    /// Check whether a tile has a unit.
+    public boolean hasUnit(int index) {
+        return mUnitType[index] != NO_UNIT;
+    }
+
+    /// Get the owner of the unit on a tile.
+    public int getUnitOwner(int index) {
+        return mUnitOwner[index];
+    }
+
+    /// Get the HP of the unit on a tile.
+    public int getUnitHp(int index) {
+        return mUnitHp[index];
+    }
+
+    /// Set the HP of the unit on a tile.
+    public void setUnitHp(int index, int hp) {
+
+        assert hasUnit(index);
+        mHash ^= getUnitKey(index);
+        mDetailHash ^= mZobrist.hpDetail(index, mUnitHp[index]) ^ mZobrist.hpDetail(index, hp);
+        mUnitHp[index] = (short)hp;
+        mHash ^= getUnitKey(index);
+
+    }
+
+    /// Get the MOVED and ACTED flags of the unit on a tile.
+    public int getUnitFlags(int index) {
+        return mUnitFlags[index];
+    }
+
+    /// Set the MOVED and ACTED flags of the unit on a tile.
+    public void setUnitFlags(int index, int flags) {
+
+        assert hasUnit(index);
+        mHash ^= getUnitKey(index);
+        mUnitFlags[index] = (byte)flags;
+        mHash ^= getUnitKey(index);
+
+    }
+
+    /// Check whether the unit on a tile has moved.
+    public boolean hasMoved(int index) {
+        return (mUnitFlags[index] & MOVED) != 0;
+    }
+
+    /// Check whether the unit on a tile has acted.
+    public boolean hasActed(int index) {
+        return (mUnitFlags[index] & ACTED) != 0;
+    }
+
+    /// Place a unit on a tile.
+    public void setUnit(int index, int type, int owner, int hp, int flags) {
+
+        clearUnit(index);
+        if (type == Unit.HQ_TYPE) {
+            ++mHqCount[owner];
+        }
+        mUnitType[index] = (byte)type;
+        mUnitOwner[index] = (byte)owner;
+        mUnitHp[index] = (short)hp;
+        mUnitFlags[index] = (byte)flags;
+        mHash ^= getUnitKey(index);
+        mDetailHash ^= mZobrist.hpDetail(index, hp);
+
+    }
+
+    /// Remove the unit on a tile.
+    public void clearUnit(int index) {
+
+        if (mUnitType[index] == NO_UNIT) {
+            return;
+        }
+        if (mUnitType[index] == Unit.HQ_TYPE) {
+            --mHqCount[mUnitOwner[index]];
+        }
+        mHash ^= getUnitKey(index);
+        mDetailHash ^= mZobrist.hpDetail(index, mUnitHp[index]);
+        mUnitType[index] = NO_UNIT;
+        mUnitOwner[index] = 0;
+        mUnitHp[index] = 0;
+        mUnitFlags[index] = 0;
+
+    }
+
+    /// Get the points of a player.
+    public int getPoints(int player) {
+        return mPoints[player];
+    }
+
+    /// Set the points of a player.
+    public void setPoints(int player, int points) {
+
+        mHash ^= mZobrist.points(player, mPoints[player]) ^ mZobrist.points(player, points);
+        mDetailHash ^= mZobrist.pointsDetail(player, mPoints[player]) ^
+                       mZobrist.pointsDetail(player, points);
+        mPoints[player] = points;
+
+    }
+
+    /// Get the id of player who's turn it is.
+    public int getActivePlayer() {
+        return mActivePlayer;
+    }
+
+    /// Set the id of player who's turn it is.
+    public void setActivePlayer(int player) {
+
+        mHash ^= mZobrist.activePlayer(mActivePlayer) ^ mZobrist.activePlayer(player);
+        mActivePlayer = player;
+
+    }
+
+    /// Get the number of turns that have been ended.
+    public int getTurn() {
+        return mTurn;
+    }
+
+    /// Set the number of turns that have been ended.
+    public void setTurn(int turn) {
+        mTurn = turn;
+    }
+
+    /// Get the Zobrist hash of the state. The turn number is not included so the same position
+    /// reached on different turns has the same hash.
+    public long getHash() {
+        return mHash;
+    }
+
+    /// Compute the Zobrist hash of the state from scratch.
+    /// \return the hash, equal to getHash unless the state is corrupted.
+    public long computeHash() {
+
+        long hash = mZobrist.activePlayer(mActivePlayer);
+        for (int player = 1; player < mPoints.length; ++player) {
+            hash ^= mZobrist.points(player, mPoints[player]);
+        }
+        for (int i = 0; i < mUnitType.length; ++i) {
+            if (mUnitType[i] != NO_UNIT) {
+                hash ^= getUnitKey(i);
+            }
+            if (mBuildingOwner[i] != NO_BUILDING) {
+                hash ^= mZobrist.building(i, mBuildingOwner[i]);
+            }
+        }
+        return hash;
+
+    }
+
+    /// Get the hash of the exact HP of every unit and points of every player. States with the
+    /// same Zobrist hash and detail hash hold the same game apart from the turn number.
+    public long getDetailHash() {
+        return mDetailHash;
+    }
+
+    /// Compute the detail hash of the state from scratch.
+    /// \return the hash, equal to getDetailHash unless the state is corrupted.
+    public long computeDetailHash() {
+
+        long hash = 0;
+        for (int player = 1; player < mPoints.length; ++player) {
+            hash ^= mZobrist.pointsDetail(player, mPoints[player]);
+        }
+        for (int i = 0; i < mUnitType.length; ++i) {
+            if (mUnitType[i] != NO_UNIT) {
+                hash ^= mZobrist.hpDetail(i, mUnitHp[i]);
+            }
+        }
+        return hash;
+
+    }
+
+    /// Check whether another state on the same board holds the same game.
+    /// \param other state to compare with.
+    /// \return whether units, building owners, points, active player and turn all match.
+    public boolean matches(GameState other) {
+
+        return Arrays.equals(mUnitType, other.mUnitType) &&
+               Arrays.equals(mUnitOwner, other.mUnitOwner) &&
+               Arrays.equals(mUnitHp, other.mUnitHp) &&
+               Arrays.equals(mUnitFlags, other.mUnitFlags) &&
+               Arrays.equals(mBuildingOwner, other.mBuildingOwner) &&
+               Arrays.equals(mPoints, other.mPoints) &&
+               mActivePlayer == other.mActivePlayer && mTurn == other.mTurn;
+
+    }
+
+    /// Check whether a player has lost all of their HQs.
+    public boolean hasLost(int player) {
+        return mHqCount[player] == 0;
+    }
+
+    /// Check whether any player has lost.
+    public boolean isGameOver() {
+
+        for (int player = 1; player < mHqCount.length; ++player) {
+            if (mHqCount[player] == 0) {
+                return true;
+            }
+        }
+        return false;
+
+    }
+
+    /// Get the id of the winning player.
+    /// \return the id of the only player with HQs left or 0 if the game is not over.
+    public int getWinner() {
+
+        int winner = 0;
+        for (int player = 1; player < mHqCount.length; ++player) {
+            if (mHqCount[player] > 0) {
+                if (winner != 0) {
+                    return 0;
+                }
+                winner = player;
+            }
+        }
+        return winner;
+
+    }
+
+    /// Get the id of the player after a player.
+    public static int getNextPlayer(int player) {
+        return (player % Config.PLAYER_COUNT) + 1;
+    }
+
+    /// Add every legal action for the active player to a list. Ending the turn is always legal.
+    /// \param actions list to add actions to.
+    public void getActions(ActionList actions) {
+
+        for (int i = 0; i < mUnitType.length; ++i) {
+            getUnitActions(i, actions);
+        }
+        actions.add(Action.endTurn());
+
+    }
+
+    /// Add every legal action of one of the active player's units to a list.
+    /// \param index index of tile with the unit, which may be empty.
+    /// \param actions list to add actions to.
+    public void getUnitActions(int index, ActionList actions) {
+
+        int player = mActivePlayer;
+        int type = mUnitType[index];
+        if (type == NO_UNIT || mUnitOwner[index] != player || hasActed(index)) {
+            return;
+        }
+
+        // Moves to every reachable empty tile.
+        if (!hasMoved(index)) {
+            searchMoves(index);
+            for (int j = 0; j < mUnitType.length; ++j) {
+                if (j != index && mReachMark[j] == mReachStamp && mUnitType[j] == NO_UNIT) {
+                    actions.add(Action.move(index, j));
+                }
+            }
+        }
+
+        // Attacks on neighbouring enemies.
+        if (ATTACK[type] > 0) {
+            for (int j = mNeighbourOffsets[index]; j < mNeighbourOffsets[index + 1]; ++j) {
+                int n = mNeighbours[j];
+                if (mUnitType[n] != NO_UNIT && mUnitOwner[n] != player) {
+                    actions.add(Action.attack(index, n));
+                }
+            }
+        }
+
+        // Capturing a building not owned by the player.
+        if (hasBuilding(index) && mBuildingOwner[index] != player) {
+            actions.add(Action.capture(index));
+        }
+
+        // Buying affordable units on neighbouring empty tiles.
+        if (type == Unit.HQ_TYPE) {
+            for (int j = mNeighbourOffsets[index]; j < mNeighbourOffsets[index + 1]; ++j) {
+                int n = mNeighbours[j];
+                if (mUnitType[n] == NO_UNIT) {
+                    for (int buyType = 0; buyType < Unit.UNIT_TYPE_COUNT; ++buyType) {
+                        if (buyType != Unit.HQ_TYPE && COST[buyType] <= mPoints[player]) {
+                            actions.add(Action.buy(index, n, buyType));
+                        }
+                    }
+                }
+            }
+        }
+
+    }
+
+    /// Apply a legal action for the active player.
+    /// \param action the action to apply.
+    /// \return record used to undo the action.
+    public long apply(long action) {
+
+        int source = Action.getSource(action);
+        int target = Action.getTarget(action);
+        switch (Action.getKind(action)) {
+            case Action.MOVE:
+                return applyMove(source, target);
+            case Action.ATTACK:
+                return applyAttack(source, target);
+            case Action.CAPTURE:
+                return applyCapture(source);
+            case Action.BUY:
+                return applyBuy(source, target, Action.getUnitType(action));
+            default:
+                return applyEndTurn();
+        }
+
+    }
+
+    /// Undo the most recently applied action that has not been undone.
+    /// \param action the action to undo.
+    /// \param record the record returned when the action was applied.
+    public void undo(long action, long record) {
+
+        int source = Action.getSource(action);
+        int target = Action.getTarget(action);
+        switch (Action.getKind(action)) {
+            case Action.MOVE:
+                setUnit(source, mUnitType[target], mUnitOwner[target], mUnitHp[target], (int)record);
+                clearUnit(target);
+                break;
+            case Action.ATTACK:
+                undoAttack(source, target, record);
+                break;
+            case Action.CAPTURE:
+                setUnitFlags(source, (int)(record & 0xFF));
+                setBuildingOwner(source, (int)(record >> 8));
+                break;
+            case Action.BUY:
+                int owner = mUnitOwner[source];
+                setPoints(owner, mPoints[owner] + COST[Action.getUnitType(action)]);
+                setUnitFlags(source, (int)record);
+                clearUnit(target);
+                break;
+            default:
+                undoEndTurn(record);
+                break;
+        }
+
+    }
+
+    /// Find the tiles a unit can reach this turn. Afterwards a tile is reachable if its reach
+    /// mark matches the reach stamp. Units can pass through, but not stop on, tiles with units
+    /// of the same player and cannot pass through other units.
+    /// \param source index of tile with the unit to search moves for.
+    private void searchMoves(int source) {
+
+        int tiles = mUnitType.length;
+        if (mReachCost == null) {
+            mReachCost = new int[tiles];
+            mReachMark = new int[tiles];
+            mHeap = new LongMinHeap(tiles * 4 + 1);
+        }
+        ++mReachStamp;
+
+        int type = mUnitType[source];
+        int player = mUnitOwner[source];
+        int range = MOVE_RANGE[type];
+        byte[] costs = mMoveCosts[MOVE_TYPE[type]];
+
+        // Dijkstra with lazy deletion using heap entries of cost << 32 | index.
+        mHeap.clear();
+        mReachCost[source] = 0;
+        mReachMark[source] = mReachStamp;
+        mHeap.push(source);
+        while (!mHeap.isEmpty()) {
+
+            long top = mHeap.pop();
+            int current = (int)top;
+            int cost = (int)(top >>> 32);
+            if (cost > mReachCost[current]) {
+                continue;
+            }
+
+            for (int j = mNeighbourOffsets[current]; j < mNeighbourOffsets[current + 1]; ++j) {
+                int n = mNeighbours[j];
+                if (costs[n] < 0 ||
+                    (mUnitType[n] != NO_UNIT && mUnitOwner[n] != player)) {
+                    continue;
+                }
+                int nCost = cost + costs[n];
+                if (nCost <= range && (mReachMark[n] != mReachStamp || nCost < mReachCost[n])) {
+                    mReachCost[n] = nCost;
+                    mReachMark[n] = mReachStamp;
+                    mHeap.push(((long)nCost << 32) | n);
+                }
+            }
+
+        }
+
+    }
+
+    /// Move a unit.
+    private long applyMove(int source, int target) {
+
+        int flags = mUnitFlags[source];
+        setUnit(target, mUnitType[source], mUnitOwner[source], mUnitHp[source], flags | MOVED);
+        clearUnit(source);
+        return flags;
+
+    }
+
+    /// Resolve an attack and counter attack, removing destroyed units.
+    /// Record holds previous HP, flags, types and owners of both units.
+    private long applyAttack(int attacker, int defender) {
+
+        int aType = mUnitType[attacker];
+        int aOwner = mUnitOwner[attacker];
+        int aHp = mUnitHp[attacker];
+        int aFlags = mUnitFlags[attacker];
+        int dType = mUnitType[defender];
+        int dOwner = mUnitOwner[defender];
+        int dHp = mUnitHp[defender];
+        int dFlags = mUnitFlags[defender];
+        long record = aHp | (dHp << 10) | (aFlags << 20) | (dFlags << 22) |
+                      ((long)aType << 24) | ((long)aOwner << 28) |
+                      ((long)dType << 32) | ((long)dOwner << 36);
+
+        int aSituation = getSituation(attacker);
+        int dSituation = getSituation(defender);
+        int newDefenderHp = dHp - CombatTable.getDamage(aSituation, dSituation);
+        int newAttackerHp = aHp;
+        if (newDefenderHp > 0) {
+            newAttackerHp -= CombatTable.getCounterDamage(aSituation, dSituation);
+        }
+
+        if (newDefenderHp > 0) {
+            setUnitHp(defender, newDefenderHp);
+        } else {
+            clearUnit(defender);
+        }
+        if (newAttackerHp > 0) {
+            setUnit(attacker, aType, aOwner, newAttackerHp, INACTIVE);
+        } else {
+            clearUnit(attacker);
+        }
+        return record;
+
+    }
+
+    /// Restore both units in an attack.
+    private void undoAttack(int attacker, int defender, long record) {
+
+        setUnit(attacker, (int)((record >> 24) & 0xF), (int)((record >> 28) & 0xF),
+                (int)(record & 0x3FF), (int)((record >> 20) & 0x3));
+        setUnit(defender, (int)((record >> 32) & 0xF), (int)((record >> 36) & 0xF),
+                (int)((record >> 10) & 0x3FF), (int)((record >> 22) & 0x3));
+
+    }
+
+    /// Get the damage an attack would deal to the defender, before any counter attack.
+    /// \param attacker index of tile with attacking unit.
+    /// \param defender index of tile with defending unit.
+    public int getAttackDamage(int attacker, int defender) {
+        return CombatTable.getDamage(getSituation(attacker), getSituation(defender));
+    }
+
+    /// Get the combat table situation of a unit.
+    private int getSituation(int index) {
+
+        boolean ownBuilding = mBuildingOwner[index] == mUnitOwner[index];
+        return CombatTable.getSituation(mUnitType[index], mTerrain[index], ownBuilding);
+
+    }
+
+    /// Capture a building. Record holds previous flags and building owner.
+    private long applyCapture(int index) {
+
+        long record = mUnitFlags[index] | (mBuildingOwner[index] << 8);
+        setBuildingOwner(index, mUnitOwner[index]);
+        setUnitFlags(index, INACTIVE);
+        return record;
+
+    }
+
+    /// Buy a unit. Record holds previous flags of the HQ.
+    private long applyBuy(int hq, int target, int type) {
+
+        int owner = mUnitOwner[hq];
+        assert mPoints[owner] >= COST[type];
+        long record = mUnitFlags[hq];
+        setPoints(owner, mPoints[owner] - COST[type]);
+        setUnitFlags(hq, INACTIVE);
+        setUnit(target, type, owner, Unit.BASE_HITPOINTS, INACTIVE);
+        return record;
+
+    }
+
+    /// End the active player's turn, deactivating their units, activating the next player's
+    /// units and giving the next player points for each flag they own. Changed flags are pushed
+    /// onto the undo stack and the record holds the number of changes, the previous active player
+    /// and the points gained.
+    private long applyEndTurn() {
+
+        int player = mActivePlayer;
+        int next = getNextPlayer(player);
+        int changes = 0;
+        int gained = 0;
+        for (int i = 0; i < mUnitType.length; ++i) {
+
+            int type = mUnitType[i];
+            if (type != NO_UNIT) {
+                int owner = mUnitOwner[i];
+                int flags = mUnitFlags[i];
+                int newFlags = flags;
+                if (owner == player) {
+                    newFlags = INACTIVE;
+                } else if (owner == next) {
+                    newFlags = (MOVE_RANGE[type] <= 0) ? MOVED : 0;
+                }
+                if (newFlags != flags) {
+                    pushUndo((i << 8) | flags);
+                    setUnitFlags(i, newFlags);
+                    ++changes;
+                }
+            }
+            if (mBuildingOwner[i] == next) {
+                gained += Flag.POINTS_VALUE;
+            }
+
+        }
+
+        setPoints(next, mPoints[next] + gained);
+        setActivePlayer(next);
+        ++mTurn;
+        return changes | ((long)player << 24) | ((long)gained << 32);
+
+    }
+
+    /// Restore the state before a turn was ended.
+    private void undoEndTurn(long record) {
+
+        int changes = (int)(record & 0xFFFFFF);
+        int player = (int)((record >> 24) & 0xFF);
+        int gained = (int)(record >>> 32);
+        setPoints(mActivePlayer, mPoints[mActivePlayer] - gained);
+        setActivePlayer(player);
+        --mTurn;
+        for (int i = 0; i < changes; ++i) {
+            int entry = mUndoStack[--mUndoSize];
+            setUnitFlags(entry >>> 8, entry & 0xFF);
+        }
+
+    }
+
+    /// Get the Zobrist key of the unit on a tile.
+    private long getUnitKey(int index) {
+
+        return mZobrist.unit(index, mUnitType[index], mUnitOwner[index], mUnitHp[index],
+                             mUnitFlags[index]);
+
+    }
+
+    /// Push an entry onto the undo stack.
+    private void pushUndo(int entry) {
+
+        if (mUndoSize == mUndoStack.length) {
+            mUndoStack = Arrays.copyOf(mUndoStack, Math.max(64, mUndoSize * 2));
+        }
+        mUndoStack[mUndoSize++] = entry;
+
+    }
+
+    /// Get the base attack of a unit type.
+    public static int getAttack(int type) {
+        return ATTACK[type];
+    }
+
+    /// Get the defense modifier of a unit type.
+    public static float getDefense(int type) {
+        return DEFENSE[type];
+    }
+
+    /// Get the move range of a unit type.
+    public static int getMoveRange(int type) {
+        return MOVE_RANGE[type];
+    }
+
+    /// Get the move type of a unit type.
+    public static int getMoveType(int type) {
+        return MOVE_TYPE[type];
+    }
+
+    /// Get the cost of buying a unit type.
+    public static int getCost(int type) {
+        return COST[type];
+    }
+
+}
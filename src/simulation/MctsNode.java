@@ -0,0 +1,106 @@
+package simulation;
+
+import java.lang.Double;
+import java.lang.Math;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/// Node of a Monte Carlo search tree shared by several threads. Statistics are updated with
+/// atomic field updates rather than locks, and children are published once with a
+/// compare-and-set so threads expanding the same node at once agree on a single set.
+///
+/// Visits are counted when a thread descends through a node and rewards when its playout
+/// returns, so a node being explored by another thread looks like a loss until the playout
+/// finishes. This virtual loss steers threads down different lines.
+final class MctsNode {
+
+    /// Scale of fixed point rewards, the reward of a won playout.
+    static final long REWARD_SCALE = 1 << 16;
+
+    private static final AtomicIntegerFieldUpdater<MctsNode> VISITS =
+        AtomicIntegerFieldUpdater.newUpdater(MctsNode.class, "mVisits");
+    private static final AtomicLongFieldUpdater<MctsNode> REWARD =
+        AtomicLongFieldUpdater.newUpdater(MctsNode.class, "mReward");
+    private static final AtomicReferenceFieldUpdater<MctsNode, MctsNode[]> CHILDREN =
+        AtomicReferenceFieldUpdater.newUpdater(MctsNode.class, MctsNode[].class, "mChildren");
+
+    /// Action leading to the node.
+    private final long mAction;
+
+    /// Id of player who chose the action.
+    private final int mPlayer;
+
+    /// Number of threads that have descended through the node.
+    private volatile int mVisits;
+
+    /// Total fixed point reward of finished playouts for the player who chose the action.
+    private volatile long mReward;
+
+    /// Child for each action of the state or null if not expanded.
+    private volatile MctsNode[] mChildren;
+
+    /// Initialise an unvisited node.
+    /// \param action action leading to the node.
+    /// \param player id of player who chose the action.
+    MctsNode(long action, int player) {
+
+        mAction = action;
+        mPlayer = player;
+        mVisits = 0;
+        mReward = 0;
+        mChildren = null;
+
+    }
+
+    /// Get the action leading to the node.
+    long getAction() {
+        return mAction;
+    }
+
+    /// Get the id of the player who chose the action.
+    int getPlayer() {
+        return mPlayer;
+    }
+
+    /// Get the number of threads that have descended through the node.
+    int getVisits() {
+        return mVisits;
+    }
+
+    /// Get the children or null if the node has not been expanded.
+    MctsNode[] getChildren() {
+        return mChildren;
+    }
+
+    /// Set the children if no other thread has.
+    /// \return the children of the node.
+    MctsNode[] expand(MctsNode[] children) {
+        return CHILDREN.compareAndSet(this, null, children) ? children : mChildren;
+    }
+
+    /// Count a thread descending through the node.
+    void visit() {
+        VISITS.incrementAndGet(this);
+    }
+
+    /// Add the reward of a finished playout.
+    void addReward(long reward) {
+        REWARD.addAndGet(this, reward);
+    }
+
+    /// Get the upper confidence bound of the node's value for the player choosing it.
+    /// \param logParentVisits natural log of the parent's visits.
+    /// \param exploration weight of the exploration term.
+    double getUpperBound(double logParentVisits, double exploration) {
+
+        int visits = mVisits;
+        if (visits == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double mean = (double)mReward / (REWARD_SCALE * (double)visits);
+        return mean + exploration * Math.sqrt(logParentVisits / visits);
+
+    }
+
+}
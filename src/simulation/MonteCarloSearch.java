@@ -0,0 +1,313 @@
+package simulation;
+
+import java.lang.Double;
+import java.lang.IllegalStateException;
+import java.lang.InterruptedException;
+import java.lang.Math;
+import java.lang.System;
+import java.lang.Thread;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import random.Randomiser;
+import config.Config;
+
+/// Monte Carlo tree search over single actions run by several threads on one shared tree.
+/// Each thread repeatedly copies the root state, descends the tree by upper confidence bounds,
+/// expands a node, plays the game out for a few turns with a rollout policy and adds the result
+/// to every node it passed through. Node statistics are lock-free and virtual loss spreads
+/// threads over different lines, so playout throughput grows with the number of threads.
+///
+/// Playouts that do not finish the game are scored with an evaluator squashed into [0, 1].
+/// Searches run for a fixed time, so results depend on machine speed.
+public final class MonteCarloSearch {
+
+    /// Weight of the exploration term of upper confidence bounds.
+    private static final double EXPLORATION = 1.0;
+
+    /// Number of visits after which a node is expanded.
+    private static final int EXPAND_VISITS = 2;
+
+    /// Deepest node a playout descends to.
+    private static final int MAX_TREE_DEPTH = 64;
+
+    /// Number of turn ends after which a playout is evaluated.
+    private static final int ROLLOUT_TURNS = 2;
+
+    /// Number of actions after which a playout is evaluated.
+    private static final int MAX_ROLLOUT_ACTIONS = 200;
+
+    /// Evaluation difference that makes a playout worth about three quarters of a win.
+    private static final double EVALUATION_SCALE = 3000.0;
+
+    /// Pool playouts run on.
+    private final ForkJoinPool mPool;
+
+    /// Number of threads searching at once.
+    private final int mThreads;
+
+    /// Root of the last search.
+    private MctsNode mRoot;
+
+    /// Number of playouts in the last search.
+    private long mRollouts;
+
+    /// Time taken by the last search in nanoseconds.
+    private long mElapsed;
+
+    /// Initialise search.
+    /// \param threads number of threads to search with.
+    public MonteCarloSearch(int threads) {
+
+        mThreads = threads;
+        mPool = new ForkJoinPool(threads);
+        mRoot = null;
+        mRollouts = 0;
+        mElapsed = 0;
+
+    }
+
+    /// Find the best action for the active player.
+    /// \param state state to search, unchanged by the search.
+    /// \param timeBudget nanoseconds to search for.
+    /// \param randomiser random number generator that thread generators are split from.
+    /// \param stop set by another thread to stop the search as if its time had run out.
+    /// \return the action most visited from the root.
+    public long search(GameState state, long timeBudget, Randomiser randomiser,
+                       AtomicBoolean stop) {
+
+        long startTime = System.nanoTime();
+        long deadline = startTime + timeBudget;
+        Evaluator evaluator = new Evaluator(state);
+        mRoot = new MctsNode(Action.endTurn(), 0);
+
+        List<Callable<Long>> workers = new ArrayList<>();
+        for (int i = 0; i < mThreads; ++i) {
+            GameState workerState = state.copy();
+            RolloutPolicy policy = new RolloutPolicy(evaluator, randomiser.split());
+            workers.add(() -> {
+                return searchUntil(state, workerState, evaluator, policy, deadline, stop);
+            });
+        }
+
+        mRollouts = 0;
+        try {
+            for (Future<Long> result : mPool.invokeAll(workers)) {
+                mRollouts += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+        mElapsed = System.nanoTime() - startTime;
+
+        MctsNode best = getMostVisited(mRoot);
+        return (best != null) ? best.getAction() : Action.endTurn();
+
+    }
+
+    /// Add the most visited line of the root player's turn from the last search to a list. The
+    /// first action is always added, later ones only while they have enough visits.
+    /// \param plan list to add actions to.
+    /// \param minVisits number of visits needed by actions after the first.
+    public void getPlan(ActionList plan, int minVisits) {
+
+        MctsNode node = getMostVisited(mRoot);
+        int count = 0;
+        while (node != null && (count == 0 || node.getVisits() >= minVisits)) {
+            plan.add(node.getAction());
+            ++count;
+            if (Action.getKind(node.getAction()) == Action.END_TURN) {
+                break;
+            }
+            node = getMostVisited(node);
+        }
+
+    }
+
+    /// Get the number of playouts in the last search.
+    public long getRollouts() {
+        return mRollouts;
+    }
+
+    /// Get the time taken by the last search in nanoseconds.
+    public long getElapsedNanos() {
+        return mElapsed;
+    }
+
+    /// Stop the search threads once they are idle.
+    public void shutdown() {
+        mPool.shutdown();
+    }
+
+    /// Run playouts on one thread until a deadline.
+    /// \param root state at the root of the tree.
+    /// \param state state owned by this thread.
+    /// \param evaluator evaluator for the search.
+    /// \param policy rollout policy owned by this thread.
+    /// \param deadline time to stop at.
+    /// \param stop set by another thread to stop early.
+    /// \return the number of playouts.
+    private long searchUntil(GameState root, GameState state, Evaluator evaluator,
+                             RolloutPolicy policy, long deadline, AtomicBoolean stop) {
+
+        MctsNode[] path = new MctsNode[MAX_TREE_DEPTH + 1];
+        long[] rewards = new long[Config.PLAYER_COUNT + 1];
+        ActionList actions = new ActionList();
+        long rollouts = 0;
+        do {
+
+            state.copyFrom(root);
+            int depth = descend(state, path, policy, actions);
+            rollout(state, policy);
+            getRewards(state, evaluator, rewards);
+            for (int i = 1; i < depth; ++i) {
+                path[i].addReward(rewards[path[i].getPlayer()]);
+            }
+            ++rollouts;
+
+        } while (System.nanoTime() < deadline && !stop.get());
+        return rollouts;
+
+    }
+
+    /// Descend the tree from the root, applying the action of each node passed through and
+    /// expanding the last node if it has been visited enough.
+    /// \param state copy of the root state to apply actions to.
+    /// \param path array to store the nodes passed through in.
+    /// \param policy rollout policy used to order children.
+    /// \param actions scratch list of actions.
+    /// \return the number of nodes in the path.
+    private int descend(GameState state, MctsNode[] path, RolloutPolicy policy,
+                        ActionList actions) {
+
+        MctsNode node = mRoot;
+        node.visit();
+        path[0] = node;
+        int depth = 1;
+        while (depth <= MAX_TREE_DEPTH && !state.isGameOver()) {
+
+            MctsNode[] children = node.getChildren();
+            if (children == null) {
+                if (node != mRoot && node.getVisits() < EXPAND_VISITS) {
+                    break;
+                }
+                children = node.expand(createChildren(state, policy, actions));
+            }
+
+            node = select(node, children);
+            node.visit();
+            state.apply(node.getAction());
+            path[depth++] = node;
+
+        }
+        return depth;
+
+    }
+
+    /// Create unvisited children for every action of a state, ordered by rollout policy
+    /// priority so the most promising actions are tried first.
+    private static MctsNode[] createChildren(GameState state, RolloutPolicy policy,
+                                             ActionList actions) {
+
+        actions.clear();
+        state.getActions(actions);
+        long[] order = new long[actions.size()];
+        for (int i = 0; i < actions.size(); ++i) {
+            long priority = policy.getPriority(state, actions.get(i));
+            order[i] = (-priority << 32) | i;
+        }
+        Arrays.sort(order);
+
+        MctsNode[] children = new MctsNode[order.length];
+        int player = state.getActivePlayer();
+        for (int i = 0; i < order.length; ++i) {
+            children[i] = new MctsNode(actions.get((int)order[i]), player);
+        }
+        return children;
+
+    }
+
+    /// Choose the child with the highest upper confidence bound. Unvisited children come
+    /// first in priority order.
+    private static MctsNode select(MctsNode parent, MctsNode[] children) {
+
+        double logVisits = Math.log(Math.max(1, parent.getVisits()));
+        MctsNode best = children[0];
+        double bestBound = Double.NEGATIVE_INFINITY;
+        for (MctsNode child : children) {
+            double bound = child.getUpperBound(logVisits, EXPLORATION);
+            if (bound > bestBound) {
+                best = child;
+                bestBound = bound;
+                if (bound == Double.POSITIVE_INFINITY) {
+                    break;
+                }
+            }
+        }
+        return best;
+
+    }
+
+    /// Play the game out with the rollout policy for a few turns.
+    private static void rollout(GameState state, RolloutPolicy policy) {
+
+        int turns = 0;
+        for (int i = 0; i < MAX_ROLLOUT_ACTIONS && turns < ROLLOUT_TURNS; ++i) {
+            if (state.isGameOver()) {
+                return;
+            }
+            long action = policy.choose(state);
+            state.apply(action);
+            if (Action.getKind(action) == Action.END_TURN) {
+                ++turns;
+            }
+        }
+
+    }
+
+    /// Compute the fixed point reward of a playout for each player.
+    private static void getRewards(GameState state, Evaluator evaluator, long[] rewards) {
+
+        if (state.isGameOver()) {
+            int winner = state.getWinner();
+            for (int player = 1; player <= Config.PLAYER_COUNT; ++player) {
+                if (winner == 0) {
+                    rewards[player] = MctsNode.REWARD_SCALE / 2;
+                } else {
+                    rewards[player] = (winner == player) ? MctsNode.REWARD_SCALE : 0;
+                }
+            }
+            return;
+        }
+        for (int player = 1; player <= Config.PLAYER_COUNT; ++player) {
+            double score = evaluator.evaluate(state, player) / EVALUATION_SCALE;
+            rewards[player] = (long)(MctsNode.REWARD_SCALE / (1.0 + Math.exp(-score)));
+        }
+
+    }
+
+    /// Get the most visited child of a node or null if it has not been expanded.
+    private static MctsNode getMostVisited(MctsNode node) {
+
+        MctsNode[] children = node.getChildren();
+        if (children == null) {
+            return null;
+        }
+        MctsNode best = null;
+        for (MctsNode child : children) {
+            if (best == null || child.getVisits() > best.getVisits()) {
+                best = child;
+            }
+        }
+        return best;
+
+    }
+
+}
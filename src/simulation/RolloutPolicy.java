@@ -0,0 +1,126 @@
+package simulation;
+
+import random.Randomiser;
+
+/// Fast policy for choosing actions in playouts, modelled on the greedy AI controller. Units
+/// capture buildings first, then attack, then move onto buildings or next to enemies, then move
+/// closer to objectives. HQs buy random units once units have nothing left to do, and the turn
+/// ends when nothing useful is left.
+final class RolloutPolicy {
+
+    // Priorities of each kind of action, scaled so details never overlap kinds.
+    private static final int KIND_SCALE = 10000;
+    private static final int CAPTURE_PRIORITY = 6 * KIND_SCALE;
+    private static final int ATTACK_PRIORITY = 5 * KIND_SCALE;
+    private static final int MOVE_TO_BUILDING_PRIORITY = 4 * KIND_SCALE;
+    private static final int MOVE_TO_ATTACK_PRIORITY = 3 * KIND_SCALE;
+    private static final int MOVE_PRIORITY = 2 * KIND_SCALE;
+    private static final int BUY_PRIORITY = KIND_SCALE;
+
+    /// Priority of actions that are never chosen over ending the turn.
+    private static final int NEVER = -1;
+
+    /// Bonus for attacks that destroy their target.
+    private static final int KILL_BONUS = KIND_SCALE / 2;
+
+    /// Largest random amount added to priorities to vary playouts.
+    private static final int NOISE = 8;
+
+    /// Distances to objectives.
+    private final Evaluator mEvaluator;
+
+    /// Random number generator for breaking ties and buying.
+    private final Randomiser mRandomiser;
+
+    /// Scratch list of actions.
+    private final ActionList mActions;
+
+    /// Initialise policy.
+    /// \param evaluator evaluator with objective distances for the search.
+    /// \param randomiser random number generator only used by this policy.
+    RolloutPolicy(Evaluator evaluator, Randomiser randomiser) {
+
+        mEvaluator = evaluator;
+        mRandomiser = randomiser;
+        mActions = new ActionList();
+
+    }
+
+    /// Choose an action for the active player.
+    /// \param state state to choose an action in.
+    /// \return the chosen action.
+    long choose(GameState state) {
+
+        mActions.clear();
+        state.getActions(mActions);
+        long best = Action.endTurn();
+        int bestPriority = 0;
+        for (int i = 0; i < mActions.size(); ++i) {
+            long action = mActions.get(i);
+            int priority = getPriority(state, action);
+            if (priority > 0) {
+                priority += mRandomiser.randomInt(0, NOISE);
+            }
+            if (priority > bestPriority) {
+                best = action;
+                bestPriority = priority;
+            }
+        }
+
+        // Like the greedy AI, sometimes buy nothing.
+        if (Action.getKind(best) == Action.BUY && mRandomiser.randomInt(0, 3) == 0) {
+            return Action.endTurn();
+        }
+        return best;
+
+    }
+
+    /// Get the priority of an action without random variation. Actions with higher priorities
+    /// are preferred.
+    /// \param state state the action is for.
+    /// \param action action to prioritise.
+    int getPriority(GameState state, long action) {
+
+        int source = Action.getSource(action);
+        int target = Action.getTarget(action);
+        switch (Action.getKind(action)) {
+            case Action.CAPTURE:
+                return CAPTURE_PRIORITY;
+            case Action.ATTACK:
+                boolean kill = state.getAttackDamage(source, target) >= state.getUnitHp(target);
+                return ATTACK_PRIORITY + (kill ? KILL_BONUS : 0);
+            case Action.MOVE:
+                return getMovePriority(state, source, target);
+            case Action.BUY:
+                return BUY_PRIORITY;
+            default:
+                return 0;
+        }
+
+    }
+
+    /// Get the priority of a move.
+    private int getMovePriority(GameState state, int source, int target) {
+
+        int player = state.getUnitOwner(source);
+        if (state.hasBuilding(target) && state.getBuildingOwner(target) != player) {
+            return MOVE_TO_BUILDING_PRIORITY;
+        }
+        if (GameState.getAttack(state.getUnitType(source)) > 0) {
+            int[] offsets = state.getNeighbourOffsets();
+            int[] neighbours = state.getNeighbours();
+            for (int i = offsets[target]; i < offsets[target + 1]; ++i) {
+                int n = neighbours[i];
+                if (n != source && state.hasUnit(n) && state.getUnitOwner(n) != player) {
+                    return MOVE_TO_ATTACK_PRIORITY;
+                }
+            }
+        }
+        int moveType = GameState.getMoveType(state.getUnitType(source));
+        int gain = mEvaluator.getDistance(player, moveType, source) -
+                   mEvaluator.getDistance(player, moveType, target);
+        return (gain > 0) ? MOVE_PRIORITY + gain : NEVER;
+
+    }
+
+}
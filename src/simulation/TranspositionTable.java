@@ -0,0 +1,167 @@
+package simulation;
+
+import java.util.Arrays;
+
+/// Fixed size cache of search results keyed by Zobrist hash. Each slot holds the score, depth,
+/// bound type and best action found for one state, and a new result replaces the old one when
+/// the keys differ or the new search was at least as deep.
+///
+/// Entries are stamped with the search that stored them. Scores are only used from the current
+/// search since evaluations depend on the objectives at its root, while best actions from older
+/// searches still order actions. Hashes bucket HP and points, so scores are only used when the
+/// detail hash of exact HP and points matches too. Best actions are shared by every state in a
+/// bucket since they only order actions.
+///
+/// Wins and losses score WIN_SCORE less the ply they happen at, counted from the root. The same
+/// state can be reached at different plies, so they are stored counted from the state instead
+/// and converted back for the ply they are read at.
+public final class TranspositionTable {
+
+    // Bound types of stored scores.
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    /// Action returned by getAction for missing states.
+    public static final long NO_ACTION = -1L;
+
+    /// Smallest magnitude of a win or loss score. Evaluations of undecided states stay far
+    /// below it.
+    private static final int DECIDED_SCORE = Evaluator.WIN_SCORE / 2;
+
+    /// Hash of the state in each slot.
+    private final long[] mKeys;
+
+    /// Detail hash of the state in each slot.
+    private final long[] mDetails;
+
+    /// Best action of the state in each slot or NO_ACTION.
+    private final long[] mActions;
+
+    /// Score of the state in each slot.
+    private final int[] mScores;
+
+    /// Remaining depth searched below the state in each slot, < 0 for empty slots.
+    private final byte[] mDepths;
+
+    /// Bound type of the score in each slot.
+    private final byte[] mBounds;
+
+    /// Search that stored each slot.
+    private final int[] mSearches;
+
+    /// Id of the current search.
+    private int mSearch;
+
+    /// Initialise an empty table.
+    /// \param capacity minimum number of slots, rounded up to a power of two.
+    public TranspositionTable(int capacity) {
+
+        int size = 1;
+        while (size < capacity) {
+            size *= 2;
+        }
+        mKeys = new long[size];
+        mDetails = new long[size];
+        mActions = new long[size];
+        mScores = new int[size];
+        mDepths = new byte[size];
+        mBounds = new byte[size];
+        mSearches = new int[size];
+        clear();
+
+    }
+
+    /// Remove every entry.
+    public void clear() {
+
+        Arrays.fill(mDepths, (byte)-1);
+        mSearch = 0;
+
+    }
+
+    /// Start a new search, after which scores stored by earlier searches are ignored.
+    public void nextSearch() {
+        ++mSearch;
+    }
+
+    /// Get the slot of a state or -1 if it has no usable score.
+    /// \param hash hash of the state.
+    /// \param detail detail hash of the state.
+    /// \param depth remaining depth the score is needed for.
+    public int findScore(long hash, long detail, int depth) {
+
+        int slot = getSlot(hash);
+        boolean usable = mDepths[slot] >= depth && mKeys[slot] == hash &&
+                         mDetails[slot] == detail && mSearches[slot] == mSearch;
+        return usable ? slot : -1;
+
+    }
+
+    /// Get the score in a slot found by findScore.
+    /// \param slot slot of the state.
+    /// \param ply number of actions from the root to the state.
+    public int getScore(int slot, int ply) {
+
+        int score = mScores[slot];
+        if (score >= DECIDED_SCORE) {
+            return score - ply;
+        } else if (score <= -DECIDED_SCORE) {
+            return score + ply;
+        }
+        return score;
+
+    }
+
+    /// Get the bound type of the score in a slot found by findScore.
+    public int getBound(int slot) {
+        return mBounds[slot];
+    }
+
+    /// Get the best action stored for a state by any search.
+    /// \return the action or NO_ACTION if the state is not in the table.
+    public long getAction(long hash) {
+
+        int slot = getSlot(hash);
+        return (mDepths[slot] >= 0 && mKeys[slot] == hash) ? mActions[slot] : NO_ACTION;
+
+    }
+
+    /// Store a search result for a state.
+    /// \param hash hash of the state.
+    /// \param detail detail hash of the state.
+    /// \param depth remaining depth searched below the state.
+    /// \param ply number of actions from the root to the state.
+    /// \param score score of the state for its active player.
+    /// \param bound bound type of the score.
+    /// \param action best action found or NO_ACTION.
+    public void store(long hash, long detail, int depth, int ply, int score, int bound,
+                      long action) {
+
+        int slot = getSlot(hash);
+        boolean replace = mKeys[slot] != hash || mDetails[slot] != detail ||
+                          mSearches[slot] != mSearch || depth >= mDepths[slot];
+        if (replace) {
+            mKeys[slot] = hash;
+            mDetails[slot] = detail;
+            mActions[slot] = action;
+            if (score >= DECIDED_SCORE) {
+                mScores[slot] = score + ply;
+            } else if (score <= -DECIDED_SCORE) {
+                mScores[slot] = score - ply;
+            } else {
+                mScores[slot] = score;
+            }
+            mDepths[slot] = (byte)depth;
+            mBounds[slot] = (byte)bound;
+            mSearches[slot] = mSearch;
+        }
+
+    }
+
+    /// Get the slot of a hash.
+    private int getSlot(long hash) {
+        return (int)(hash ^ (hash >>> 32)) & (mKeys.length - 1);
+    }
+
+}
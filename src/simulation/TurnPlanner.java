@@ -0,0 +1,422 @@
+package simulation;
+
+import java.lang.Integer;
+import java.lang.Math;
+import java.util.Arrays;
+import unit.Unit;
+import unit.CombatTable;
+import random.Randomiser;
+
+/// Plans a whole turn for every unit and HQ of the active player at once on a scratch copy of a
+/// state, then hands back the actions as one ordered batch.
+///
+/// Units capture buildings first, then attack, then move closer to objectives, like the greedy
+/// AI controller. Instead of deciding unit by unit in a fixed order, every round commits the
+/// best choice of any unit that has not yet been planned and applies it to the scratch state.
+/// Later units then see the tiles taken, the targets already damaged or destroyed and the
+/// buildings already captured, so no two units are sent to the same tile or building and kills
+/// are not wasted on destroyed targets. HQs buy units once units are planned.
+public final class TurnPlanner {
+
+    // Scores of each kind of choice, scaled so details never overlap kinds.
+    private static final int KIND_SCALE = 10000;
+    private static final int CAPTURE_SCORE = 3 * KIND_SCALE;
+    private static final int ATTACK_SCORE = 2 * KIND_SCALE;
+    private static final int MOVE_SCORE = KIND_SCALE;
+
+    /// Score for destroying a target, and penalty for being destroyed by a counter attack.
+    private static final int KILL_BONUS = 2 * Unit.BASE_HITPOINTS;
+
+    /// Number of buy choices an HQ picks from at random, including buying nothing.
+    private static final int BUY_CHOICES = 4;
+
+    /// Distance given to tiles that cannot reach an objective.
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /// No action chosen.
+    private static final long NO_ACTION = -1;
+
+    /// Random number generator for buying.
+    private final Randomiser mRandomiser;
+
+    /// Scratch list of actions.
+    private final ActionList mActions;
+
+    /// Move costs to the nearest objective for each move type with enemy units blocking, and
+    /// with terrain alone for units every route of which is blocked. Null until needed.
+    private final int[][] mDistances;
+    private final int[][] mTerrainDistances;
+
+    /// Number of objectives in the targets array or -1 if they need to be found again.
+    private int mTargetCount;
+
+    /// Scratch array of objective tile indices.
+    private int[] mTargets;
+
+    /// Indices of tiles with units that have not yet been planned.
+    private int[] mUnits;
+    private int mUnitCount;
+
+    /// Best choice of each unit still to plan, in the same order, and whether it needs to be
+    /// evaluated again.
+    private int[] mScores;
+    private long[] mMoves;
+    private long[] mChoices;
+    private boolean[] mStale;
+
+    /// Best choice found for the last unit evaluated.
+    private int mChoiceScore;
+    private long mChoiceMove;
+    private long mChoiceAction;
+
+    /// Initialise planner.
+    /// \param randomiser random number generator only used by this planner.
+    public TurnPlanner(Randomiser randomiser) {
+
+        mRandomiser = randomiser;
+        mActions = new ActionList();
+        mDistances = new int[Unit.MOVE_TYPE_COUNT][];
+        mTerrainDistances = new int[Unit.MOVE_TYPE_COUNT][];
+        mTargets = new int[0];
+        mTargetCount = -1;
+        mUnits = new int[0];
+        mUnitCount = 0;
+        mScores = new int[0];
+        mMoves = new long[0];
+        mChoices = new long[0];
+        mStale = new boolean[0];
+
+    }
+
+    /// Plan the rest of the active player's turn.
+    /// \param state state to plan from, unchanged by planning.
+    /// \param plan list to add actions to in the order to carry them out, ending with the end
+    ///             of the turn.
+    public void plan(GameState state, ActionList plan) {
+
+        GameState scratch = state.copy();
+        int player = scratch.getActivePlayer();
+        clearDistances(true);
+
+        // Collect units that can still act.
+        int tiles = scratch.getTileCount();
+        if (mUnits.length < tiles) {
+            mUnits = new int[tiles];
+            mScores = new int[tiles];
+            mMoves = new long[tiles];
+            mChoices = new long[tiles];
+            mStale = new boolean[tiles];
+        }
+        mUnitCount = 0;
+        for (int i = 0; i < tiles; ++i) {
+            if (scratch.hasUnit(i) && scratch.getUnitOwner(i) == player &&
+                scratch.getUnitType(i) != Unit.HQ_TYPE && !scratch.hasActed(i)) {
+                mStale[mUnitCount] = true;
+                mUnits[mUnitCount++] = i;
+            }
+        }
+
+        // Commit the best remaining choice until no unit has anything useful left to do.
+        // Choices are kept between rounds and only evaluated again once a commit changes
+        // something they depend on.
+        while (mUnitCount > 0 && !scratch.isGameOver()) {
+
+            int best = -1;
+            int bestScore = 0;
+            for (int u = 0; u < mUnitCount; ++u) {
+                if (mStale[u]) {
+                    evaluate(scratch, mUnits[u]);
+                    mScores[u] = mChoiceScore;
+                    mMoves[u] = mChoiceMove;
+                    mChoices[u] = mChoiceAction;
+                    mStale[u] = false;
+                }
+                if (mScores[u] > bestScore) {
+                    best = u;
+                    bestScore = mScores[u];
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+
+            long move = mMoves[best];
+            long action = mChoices[best];
+            removeUnit(best);
+            if (move != NO_ACTION) {
+                plan.add(move);
+                scratch.apply(move);
+                markStale(scratch, Action.getSource(move));
+                markStale(scratch, Action.getTarget(move));
+            }
+            if (action != NO_ACTION) {
+
+                int source = Action.getSource(action);
+                int target = Action.getTarget(action);
+                boolean attack = Action.getKind(action) == Action.ATTACK;
+                boolean hq = attack && scratch.getUnitType(target) == Unit.HQ_TYPE;
+                plan.add(action);
+                scratch.apply(action);
+                markStale(scratch, source);
+                if (attack) {
+                    markStale(scratch, target);
+                }
+
+                // Kills change which routes are blocked, and captures and destroyed HQs change
+                // objectives.
+                if (!attack || !scratch.hasUnit(target)) {
+                    clearDistances(!attack || hq);
+                    for (int u = 0; u < mUnitCount; ++u) {
+                        mStale[u] = true;
+                    }
+                }
+
+            }
+
+        }
+
+        if (!scratch.isGameOver()) {
+            planBuys(scratch, plan);
+        }
+        plan.add(Action.endTurn());
+
+    }
+
+    /// Remove a unit from the units still to plan.
+    /// \param u position of the unit in the list.
+    private void removeUnit(int u) {
+
+        --mUnitCount;
+        mUnits[u] = mUnits[mUnitCount];
+        mScores[u] = mScores[mUnitCount];
+        mMoves[u] = mMoves[mUnitCount];
+        mChoices[u] = mChoices[mUnitCount];
+        mStale[u] = mStale[mUnitCount];
+
+    }
+
+    /// Mark the choices of units that a change to a tile could affect as stale. Every move costs
+    /// at least 1, so a unit only depends on tiles within its move range plus the range of an
+    /// attack.
+    /// \param state scratch state.
+    /// \param index index of the changed tile.
+    private void markStale(GameState state, int index) {
+
+        int x = state.getX(index);
+        int y = state.getY(index);
+        for (int u = 0; u < mUnitCount; ++u) {
+            int unit = mUnits[u];
+            int distance = Math.abs(state.getX(unit) - x) + Math.abs(state.getY(unit) - y);
+            if (distance <= GameState.getMoveRange(state.getUnitType(unit)) + 1) {
+                mStale[u] = true;
+            }
+        }
+
+    }
+
+    /// Find the best choice of a unit, storing it in the choice fields. The score is 0 if the
+    /// unit has nothing useful to do.
+    /// \param state scratch state.
+    /// \param index index of tile with the unit.
+    private void evaluate(GameState state, int index) {
+
+        mChoiceScore = 0;
+        mChoiceMove = NO_ACTION;
+        mChoiceAction = NO_ACTION;
+        mActions.clear();
+        state.getUnitActions(index, mActions);
+
+        evaluatePosition(state, index, index, NO_ACTION);
+        int[] distances = getDistances(state, index);
+        for (int i = 0; i < mActions.size(); ++i) {
+
+            long action = mActions.get(i);
+            if (Action.getKind(action) != Action.MOVE) {
+                continue;
+            }
+            int target = Action.getTarget(action);
+            evaluatePosition(state, index, target, action);
+
+            // Moves towards objectives rank below every capture and attack.
+            if (distances[index] != UNREACHABLE && distances[target] != UNREACHABLE) {
+                int gain = distances[index] - distances[target];
+                if (gain > 0) {
+                    offer(MOVE_SCORE + gain, action, NO_ACTION);
+                }
+            }
+
+        }
+
+    }
+
+    /// Evaluate capturing from and attacking from a position a unit is at or can move to.
+    /// \param state scratch state.
+    /// \param index index of tile with the unit.
+    /// \param position index of tile the unit acts from.
+    /// \param move move to the position or NO_ACTION if the unit stays.
+    private void evaluatePosition(GameState state, int index, int position, long move) {
+
+        int player = state.getUnitOwner(index);
+        int type = state.getUnitType(index);
+        if (state.hasBuilding(position) && state.getBuildingOwner(position) != player) {
+            offer(CAPTURE_SCORE, move, Action.capture(position));
+        }
+        if (GameState.getAttack(type) <= 0) {
+            return;
+        }
+
+        int hp = state.getUnitHp(index);
+        int situation = CombatTable.getSituation(type, state.getTerrainType(position),
+                                                 state.getBuildingOwner(position) == player);
+        int[] offsets = state.getNeighbourOffsets();
+        int[] neighbours = state.getNeighbours();
+        for (int i = offsets[position]; i < offsets[position + 1]; ++i) {
+
+            int n = neighbours[i];
+            if (!state.hasUnit(n) || state.getUnitOwner(n) == player) {
+                continue;
+            }
+            boolean ownBuilding = state.getBuildingOwner(n) == state.getUnitOwner(n);
+            int defender = CombatTable.getSituation(state.getUnitType(n),
+                                                    state.getTerrainType(n), ownBuilding);
+            int damage = CombatTable.getDamage(situation, defender);
+            int score = ATTACK_SCORE + damage;
+            if (damage >= state.getUnitHp(n)) {
+                score += KILL_BONUS;
+            } else {
+                int counterDamage = CombatTable.getCounterDamage(situation, defender);
+                score -= counterDamage;
+                if (counterDamage >= hp) {
+                    score -= KILL_BONUS;
+                }
+            }
+            offer(score, move, Action.attack(position, n));
+
+        }
+
+    }
+
+    /// Keep a choice if it scores higher than the best so far.
+    private void offer(int score, long move, long action) {
+
+        if (score > mChoiceScore) {
+            mChoiceScore = score;
+            mChoiceMove = move;
+            mChoiceAction = action;
+        }
+
+    }
+
+    /// Plan purchases for every HQ of the active player. Like the greedy AI, each HQ picks at
+    /// random between buying nothing and each affordable unit type, but places the unit on the
+    /// free neighbouring tile closest to an objective.
+    private void planBuys(GameState state, ActionList plan) {
+
+        int player = state.getActivePlayer();
+        int[] offsets = state.getNeighbourOffsets();
+        int[] neighbours = state.getNeighbours();
+        for (int i = 0; i < state.getTileCount(); ++i) {
+
+            if (!state.hasUnit(i) || state.getUnitOwner(i) != player ||
+                state.getUnitType(i) != Unit.HQ_TYPE || state.hasActed(i)) {
+                continue;
+            }
+
+            // Choose a type among those affordable in the greedy AI's order.
+            int choice = mRandomiser.randomInt(0, BUY_CHOICES - 1);
+            int type = -1;
+            for (int t = 0; t < Unit.UNIT_TYPE_COUNT && type < 0; ++t) {
+                if (t != Unit.HQ_TYPE && GameState.getCost(t) <= state.getPoints(player)) {
+                    if (choice == 0) {
+                        type = t;
+                    }
+                    --choice;
+                }
+            }
+            if (type < 0) {
+                continue;
+            }
+
+            int[] distances = getTerrainDistances(state, GameState.getMoveType(type));
+            int target = -1;
+            for (int j = offsets[i]; j < offsets[i + 1]; ++j) {
+                int n = neighbours[j];
+                if (!state.hasUnit(n) && (target < 0 || distances[n] < distances[target])) {
+                    target = n;
+                }
+            }
+            if (target >= 0) {
+                long action = Action.buy(i, target, type);
+                plan.add(action);
+                state.apply(action);
+            }
+
+        }
+
+    }
+
+    /// Get the objective distances a unit follows. Units with no unblocked route follow
+    /// terrain alone.
+    private int[] getDistances(GameState state, int index) {
+
+        int moveType = GameState.getMoveType(state.getUnitType(index));
+        if (mDistances[moveType] == null) {
+            findTargets(state);
+            mDistances[moveType] = Evaluator.computeDistances(state, moveType, mTargets,
+                                                              mTargetCount, UNREACHABLE,
+                                                              state.getActivePlayer());
+        }
+        int[] distances = mDistances[moveType];
+        return (distances[index] != UNREACHABLE) ? distances :
+                                                   getTerrainDistances(state, moveType);
+
+    }
+
+    /// Get the objective distances over terrain alone for a move type.
+    private int[] getTerrainDistances(GameState state, int moveType) {
+
+        if (mTerrainDistances[moveType] == null) {
+            findTargets(state);
+            mTerrainDistances[moveType] = Evaluator.computeDistances(state, moveType, mTargets,
+                                                                     mTargetCount, UNREACHABLE,
+                                                                     0);
+        }
+        return mTerrainDistances[moveType];
+
+    }
+
+    /// Forget distances so they are computed again when next needed.
+    /// \param objectives whether objectives have changed as well as units blocking routes.
+    private void clearDistances(boolean objectives) {
+
+        Arrays.fill(mDistances, null);
+        if (objectives) {
+            Arrays.fill(mTerrainDistances, null);
+            mTargetCount = -1;
+        }
+
+    }
+
+    /// Find the buildings the active player does not own and enemy HQs if they have changed.
+    private void findTargets(GameState state) {
+
+        if (mTargetCount >= 0) {
+            return;
+        }
+        if (mTargets.length < state.getTileCount()) {
+            mTargets = new int[state.getTileCount()];
+        }
+        int player = state.getActivePlayer();
+        mTargetCount = 0;
+        for (int i = 0; i < state.getTileCount(); ++i) {
+            boolean enemyHq = state.getUnitType(i) == Unit.HQ_TYPE &&
+                              state.getUnitOwner(i) != player;
+            boolean building = state.hasBuilding(i) && state.getBuildingOwner(i) != player;
+            if (enemyHq || building) {
+                mTargets[mTargetCount++] = i;
+            }
+        }
+
+    }
+
+}
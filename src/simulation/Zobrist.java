@@ -0,0 +1,151 @@
+package simulation;
+
+import java.lang.Math;
+import java.util.SplittableRandom;
+import unit.Unit;
+import config.Config;
+
+/// Random keys for Zobrist hashing of game states. A state's hash is the exclusive or of the keys
+/// of each part of the state, so a change to one part updates the hash by removing the old key
+/// and adding the new one.
+///
+/// Detail keys cover the exact HP and points that the other keys bucket, so a hash of them tells
+/// apart states that share a bucketed hash.
+///
+/// Keys are generated from a fixed seed so states on boards with the same number of tiles hash
+/// the same way in every process, allowing replicas of a match to compare hashes. Terrain never
+/// changes during a match so it is not hashed.
+public final class Zobrist {
+
+    /// Seed keys are generated from.
+    private static final long SEED = 0x5DEECE66DL;
+
+    /// Range of HP sharing a key.
+    public static final int HP_BUCKET_SIZE = 10;
+
+    /// Range of points sharing a key. Points only change in multiples of the flag value and unit
+    /// costs so buckets of this size do not merge points reached in play.
+    public static final int POINTS_BUCKET_SIZE = 500;
+
+    // Key counts per tile.
+    private static final int OWNER_COUNT = Config.PLAYER_COUNT + 1;
+    private static final int UNIT_KEYS = Unit.UNIT_TYPE_COUNT * OWNER_COUNT;
+    private static final int HP_KEYS = Unit.BASE_HITPOINTS / HP_BUCKET_SIZE + 1;
+    private static final int FLAG_KEYS = 4;
+
+    /// Keys for each unit type and owner on each tile.
+    private final long[] mUnitKeys;
+
+    /// Keys for each HP bucket of a unit on each tile.
+    private final long[] mHpKeys;
+
+    /// Keys for each combination of MOVED and ACTED flags of a unit on each tile.
+    private final long[] mFlagKeys;
+
+    /// Keys for each owner of a building on each tile.
+    private final long[] mBuildingKeys;
+
+    /// Keys for each active player.
+    private final long[] mActivePlayerKeys;
+
+    /// Salt mixed with player and bucket to get points keys.
+    private final long mPointsSalt;
+
+    /// Salts mixed with tile and HP or player and points to get detail keys.
+    private final long mHpDetailSalt;
+    private final long mPointsDetailSalt;
+
+    /// Generate keys for a board.
+    /// \param tiles number of tiles on the board.
+    public Zobrist(int tiles) {
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        mUnitKeys = createKeys(random, tiles * UNIT_KEYS);
+        mHpKeys = createKeys(random, tiles * HP_KEYS);
+        mFlagKeys = createKeys(random, tiles * FLAG_KEYS);
+        mBuildingKeys = createKeys(random, tiles * OWNER_COUNT);
+        mActivePlayerKeys = createKeys(random, OWNER_COUNT);
+        mPointsSalt = random.nextLong();
+        mHpDetailSalt = random.nextLong();
+        mPointsDetailSalt = random.nextLong();
+
+    }
+
+    /// Get the key of a unit.
+    /// \param index index of tile with unit.
+    /// \param type type of unit.
+    /// \param owner owner of unit.
+    /// \param hp HP of unit.
+    /// \param flags MOVED and ACTED flags of unit.
+    public long unit(int index, int type, int owner, int hp, int flags) {
+
+        int bucket = Math.min(Math.max(hp, 0) / HP_BUCKET_SIZE, HP_KEYS - 1);
+        return mUnitKeys[index * UNIT_KEYS + type * OWNER_COUNT + owner] ^
+               mHpKeys[index * HP_KEYS + bucket] ^
+               mFlagKeys[index * FLAG_KEYS + flags];
+
+    }
+
+    /// Get the key of a building owner.
+    /// \param index index of tile with building.
+    /// \param owner owner of building, 0 if unowned.
+    public long building(int index, int owner) {
+        return mBuildingKeys[index * OWNER_COUNT + owner];
+    }
+
+    /// Get the key of the active player.
+    public long activePlayer(int player) {
+        return mActivePlayerKeys[player];
+    }
+
+    /// Get the key of a player's points. Points are unbounded so keys are mixed from the player
+    /// and bucket instead of stored.
+    /// \param player id of player.
+    /// \param points points of player.
+    public long points(int player, int points) {
+
+        return mix(mPointsSalt + (points / POINTS_BUCKET_SIZE) * 0x9E3779B97F4A7C15L + player);
+
+    }
+
+    /// Get the detail key of a unit's exact HP, which unit keys only bucket.
+    /// \param index index of tile with unit.
+    /// \param hp HP of unit.
+    public long hpDetail(int index, int hp) {
+
+        long value = ((long)index << 32) | (hp & 0xFFFFFFFFL);
+        return mix(mHpDetailSalt + value * 0x9E3779B97F4A7C15L);
+
+    }
+
+    /// Get the detail key of a player's exact points, which points keys only bucket.
+    /// \param player id of player.
+    /// \param points points of player.
+    public long pointsDetail(int player, int points) {
+
+        long value = ((long)player << 32) | (points & 0xFFFFFFFFL);
+        return mix(mPointsDetailSalt + value * 0x9E3779B97F4A7C15L);
+
+    }
+
+    /// Scramble a value with the SplitMix64 finaliser.
+    private static long mix(long z) {
+
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+
+    }
+
+    /// Create an array of random keys.
+    private static long[] createKeys(SplittableRandom random, int count) {
+
+        long[] keys = new long[count];
+        for (int i = 0; i < count; ++i) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+
+    }
+
+}
@@ -3,6 +3,7 @@ package state;
 import processing.core.PApplet;
 import processing.core.PVector;
 import texture.TextureManager;
+import random.Randomiser;
 import scene.Scene;
 import scene.GameManager;
 import controller.Controller;
@@ -14,12 +15,16 @@ public class Context {
     public final TextureManager textureManager;
     public final Scene scene;
 
+    /// Random number generator that each new game splits its own generator from.
+    public final Randomiser randomiser;
+
     public GameManager gameManager;
 
-    public Context(Scene scene, TextureManager textureManager) {
+    public Context(Scene scene, TextureManager textureManager, Randomiser randomiser) {
 
         this.textureManager = textureManager;
         this.scene = scene;
+        this.randomiser = randomiser;
         this.gameManager = null;//new GameManager(textureManager);
 
     }
@@ -7,6 +7,7 @@ import java.util.function.Supplier;
 import java.util.function.Consumer;
 import java.util.ArrayList;
 import menu.Menu;
+import grid.Grid;
 import menu.Button;
 import texture.Texture;
 import config.Config;
@@ -44,7 +45,19 @@ public class InGame extends SceneState {
     public void handleKeyPress(char key) {
 
         if (key == ' ') {
+            mContext.gameManager.cancelControllers();
             mContext.scene.setState(new Pause(mContext));
+        } else if (key == 'w') {
+            mContext.gameManager.getGrid().moveCamera(0f, -Grid.TILE_SIZE);
+        } else if (key == 'a') {
+            mContext.gameManager.getGrid().moveCamera(-Grid.TILE_SIZE, 0f);
+        } else if (key == 's') {
+            mContext.gameManager.getGrid().moveCamera(0f, Grid.TILE_SIZE);
+        } else if (key == 'd') {
+            mContext.gameManager.getGrid().moveCamera(Grid.TILE_SIZE, 0f);
+        } else if (key == 'i') {
+            boolean instant = mContext.gameManager.isInstantResolution();
+            mContext.gameManager.setInstantResolution(!instant);
         }
 
     }
@@ -52,6 +65,7 @@ public class InGame extends SceneState {
     private void checkFinished() {
 
         if (mContext.gameManager.gameIsOver()) {
+            mContext.gameManager.cancelControllers();
             mContext.gameManager = mContext.gameManager.getNext();
         }
         if (mContext.gameManager == null) {
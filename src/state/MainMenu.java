@@ -16,6 +16,9 @@ import scene.Level1;
 import controller.Controller;
 import controller.PlayerController;
 import controller.AIController;
+import controller.SearchController;
+import controller.AsyncController;
+import random.Randomiser;
 
 public class MainMenu extends SceneState {
 
@@ -73,31 +76,49 @@ public class MainMenu extends SceneState {
 
         Runnable levelsInit = 
            () -> {
-               mContext.gameManager = new Level1(mContext.textureManager);
+               mContext.gameManager = new Level1(mContext.textureManager,
+                                                 mContext.randomiser.split());
                mContext.scene.setState(new InGame(mContext));
            };
 
         Runnable pvpInit = 
            () -> {
+               Randomiser randomiser = mContext.randomiser.split();
                Controller[] controllers = new Controller[] {new PlayerController(),
                                                             new PlayerController()};
-               mContext.gameManager = new SymmetricLevel(mContext.textureManager, controllers);
+               mContext.gameManager = new SymmetricLevel(mContext.textureManager, 
+                                                         randomiser, controllers);
                mContext.scene.setState(new InGame(mContext));
            };
 
         Runnable pvaInit = 
            () -> {
+               Randomiser randomiser = mContext.randomiser.split();
                Controller[] controllers = new Controller[] {new PlayerController(),
-                                                            new AIController()};
-               mContext.gameManager = new SymmetricLevel(mContext.textureManager, controllers);
+                                                            new AIController(randomiser.split())};
+               mContext.gameManager = new SymmetricLevel(mContext.textureManager, 
+                                                         randomiser, controllers);
+               mContext.scene.setState(new InGame(mContext));
+           };
+
+        // The search thinks on a background thread so the game keeps drawing meanwhile.
+        Runnable searchInit = 
+           () -> {
+               Randomiser randomiser = mContext.randomiser.split();
+               Controller search = new AsyncController(new SearchController());
+               Controller[] controllers = new Controller[] {new PlayerController(), search};
+               mContext.gameManager = new SymmetricLevel(mContext.textureManager, 
+                                                         randomiser, controllers);
                mContext.scene.setState(new InGame(mContext));
            };
 
         Runnable avaInit = 
            () -> {
-               Controller[] controllers = new Controller[] {new AIController(),
-                                                            new AIController()};
-               mContext.gameManager = new SymmetricLevel(mContext.textureManager, controllers);
+               Randomiser randomiser = mContext.randomiser.split();
+               Controller[] controllers = new Controller[] {new AIController(randomiser.split()),
+                                                            new AIController(randomiser.split())};
+               mContext.gameManager = new SymmetricLevel(mContext.textureManager, 
+                                                         randomiser, controllers);
                mContext.scene.setState(new InGame(mContext));
            };
 
@@ -108,6 +129,8 @@ public class MainMenu extends SceneState {
                                      Config.BUTTON_TEXT_SIZE, pvpInit));
         buttons.add(new ActionButton(buttonTexture, "Player VS AI", 
                                      Config.BUTTON_TEXT_SIZE, pvaInit));
+        buttons.add(new ActionButton(buttonTexture, "Player VS Search", 
+                                     Config.BUTTON_TEXT_SIZE, searchInit));
         buttons.add(new ActionButton(buttonTexture, "AI VS AI", 
                                      Config.BUTTON_TEXT_SIZE, avaInit));
 
@@ -116,7 +139,7 @@ public class MainMenu extends SceneState {
         }
         
         mMenu = new Menu(buttons, SPACING);
-        mMenu.setTranslation(Config.WINDOW_WIDTH / 3f, Config.WINDOW_HEIGHT / 5f * 3f);
+        mMenu.setTranslation(Config.WINDOW_WIDTH / 3f, Config.WINDOW_HEIGHT / 3f * 2f);
 
     }
 
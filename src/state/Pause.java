@@ -58,6 +58,7 @@ public class Pause extends SceneState {
 
         Runnable skip = 
             () -> {
+                mContext.gameManager.cancelControllers();
                 mContext.gameManager = mContext.gameManager.getNext();
                 if (mContext.gameManager == null) {
                     mContext.scene.setState(new MainMenu(mContext));
@@ -68,6 +69,7 @@ public class Pause extends SceneState {
 
         Runnable mainMenu = 
             () -> {
+                mContext.gameManager.cancelControllers();
                 mContext.gameManager = null;
                 mContext.scene.setState(new MainMenu(mContext));
             };
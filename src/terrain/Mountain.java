@@ -8,11 +8,11 @@ public class Mountain extends Terrain {
 
     private static int CLIP = 4;
     private static int[] MOVE_COSTS = {2, -1, 1};
-    private static float COVER_MULTIPLIER = 0.5f;
+    public static final float COVER_MULTIPLIER = 0.5f;
 
     public Mountain(Texture texture) {
 
-        super(texture, CLIP, MOVE_COSTS, COVER_MULTIPLIER);
+        super(texture, CLIP, MOVE_COSTS, COVER_MULTIPLIER, MOUNTAIN_TYPE);
 
     }
 
@@ -8,11 +8,11 @@ public class Plains extends Terrain {
 
     private static int CLIP = 1;
     private static int[] MOVE_COSTS = {1, 2, 1};
-    private static float COVER_MULTIPLIER = 0.1f;
+    public static final float COVER_MULTIPLIER = 0.1f;
 
     public Plains(Texture texture) {
 
-        super(texture, CLIP, MOVE_COSTS, COVER_MULTIPLIER);
+        super(texture, CLIP, MOVE_COSTS, COVER_MULTIPLIER, PLAINS_TYPE);
 
     }
 
@@ -9,11 +9,12 @@ public class Road extends Terrain {
     private static int STRAIGHT_CLIP = 2;
     private static int CORNER_CLIP = 3;
     private static int[] MOVE_COSTS = {1, 1, 1};
-    private static float COVER_MULTIPLIER = 0f;
+    public static final float COVER_MULTIPLIER = 0f;
 
     public Road(Texture texture, boolean straight) {
 
-        super(texture, (straight ? STRAIGHT_CLIP : CORNER_CLIP), MOVE_COSTS, COVER_MULTIPLIER);
+        super(texture, (straight ? STRAIGHT_CLIP : CORNER_CLIP), MOVE_COSTS, 
+              COVER_MULTIPLIER, ROAD_TYPE);
 
     }
 
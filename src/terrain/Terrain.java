@@ -7,6 +7,13 @@ import unit.Unit;
 /// Terrain for a single tile on game grid.
 public abstract class Terrain extends TextureObject {
 
+    // Terrain type constants.
+    public final static int PLAINS_TYPE = 0;
+    public final static int MOUNTAIN_TYPE = 1;
+    public final static int WATER_TYPE = 2;
+    public final static int ROAD_TYPE = 3;
+    public final static int TYPE_COUNT = 4;
+
     /// Costs of movement over terrain for each unit move type. Move cost < 0 
     /// means terrain is impassable for that movement type.
     private final int[] mMoveCosts;
@@ -14,13 +21,17 @@ public abstract class Terrain extends TextureObject {
     /// Cover defense modifier provided by terrain in combat.
     private final float mCover;
 
+    /// Type of terrain.
+    private final int mType;
+
     /// Initialise terrain.
-    public Terrain(Texture texture, int clip, int[] moveCosts, float cover) {
+    public Terrain(Texture texture, int clip, int[] moveCosts, float cover, int type) {
 
         super(texture);
         setClip(clip);
         mMoveCosts = moveCosts;
         mCover = cover;
+        mType = type;
         assert mMoveCosts.length == Unit.MOVE_TYPE_COUNT;
 
     }
@@ -39,6 +50,13 @@ public abstract class Terrain extends TextureObject {
 
     }
 
+    /// Get the type of terrain.
+    public int getType() {
+
+        return mType;
+
+    }
+
     /// Get the terrain's cover modifier.
     public float getCover() {
 
@@ -1,6 +1,7 @@
 package texture;
 
 import processing.core.PApplet;
+import processing.core.PGraphics;
 import processing.core.PImage;
 import java.lang.RuntimeException;
 import java.io.IOException;
@@ -17,6 +18,10 @@ public class Texture {
     /// Clips that can be used to render different areas of the image.
     private ArrayList<Rect> mClips;
 
+    /// Area of the image under each clip, copied out once when the clip is added so rendering a
+    /// clip draws only its own pixels without clipping the whole image.
+    private ArrayList<PImage> mSlices;
+
     /// Initialise with path to load image from.
     /// \param core Processing core to use for loading image.
     /// \param path Image file path.
@@ -30,9 +35,11 @@ public class Texture {
 
         }
         mClips = new ArrayList<Rect>();
+        mSlices = new ArrayList<PImage>();
 
         // Add default clip for entire image.
         mClips.add(new Rect(0f, 0f, mImage.width, mImage.height));
+        mSlices.add(mImage);
 
     }
 
@@ -73,6 +80,7 @@ public class Texture {
     public void addClip(Rect clip) {
 
         mClips.add(clip.copy());
+        mSlices.add(mImage.get((int)clip.x, (int)clip.y, (int)clip.width, (int)clip.height));
 
     }
 
@@ -88,15 +96,17 @@ public class Texture {
     /// \param core Processing core to use to render the image.
     /// \param clipIndex the index of the clip to crop the image with.
     public void render(PApplet core, int clipIndex) {
-        
-        // clip image then render, this includes translating so that clip is centred
-        // at current transformation.
-        Rect clip = mClips.get(clipIndex);
-        core.translate(-clip.x, -clip.y);
-        core.clip(clip.x, clip.y, clip.width, clip.height);
-        core.image(mImage, 0, 0);
-        core.noClip();
-        core.translate(clip.x, clip.y);
+
+        core.image(mSlices.get(clipIndex), 0, 0);
+
+    }
+
+    /// Render the image cropped by a clip into an offscreen graphics buffer.
+    /// \param graphics graphics to render the image into.
+    /// \param clipIndex the index of the clip to crop the image with.
+    public void render(PGraphics graphics, int clipIndex) {
+
+        graphics.image(mSlices.get(clipIndex), 0, 0);
 
     }
 
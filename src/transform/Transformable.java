@@ -2,6 +2,7 @@ package transform;
 
 import processing.core.PVector;
 import processing.core.PApplet;
+import processing.core.PGraphics;
 
 /// Object that can be transformed (rotates, scaled and translated).
 public class Transformable {
@@ -46,6 +47,21 @@ public class Transformable {
 
     }
 
+    /// Apply the objects current transformation to an offscreen graphics buffer.
+    /// \param graphics graphics to carry out the transformation on.
+    public void applyTransform(PGraphics graphics) {
+
+        PVector translation = getTranslation();
+        PVector origin = getOrigin();
+        PVector scale = getScale();
+
+        graphics.translate(translation.x, translation.y);
+        graphics.rotate(getRadianRotation());
+        graphics.scale(scale.x, scale.y);
+        graphics.translate(-origin.x, -origin.y);
+
+    }
+
     /// Get the object's current rotation in degrees.
     /// \return the object's current rotation.
     public float getRotation() {
@@ -0,0 +1,62 @@
+package unit;
+
+/// Outcome of an attack and any counter attack. Combat has no random element, so whether each
+/// unit is destroyed is certain and given as a flag rather than a probability.
+public final class CombatForecast {
+
+    /// Damage dealt to the defender.
+    private final int mDamage;
+
+    /// Damage dealt to the attacker by the counter attack, 0 if there is none.
+    private final int mCounterDamage;
+
+    /// HP of the attacker and defender before the attack.
+    private final int mAttackerHp;
+    private final int mDefenderHp;
+
+    /// Initialise forecast.
+    /// \param damage damage dealt to the defender.
+    /// \param counterDamage damage dealt to the attacker by the counter attack.
+    /// \param attackerHp HP of the attacker before the attack.
+    /// \param defenderHp HP of the defender before the attack.
+    CombatForecast(int damage, int counterDamage, int attackerHp, int defenderHp) {
+
+        mDamage = damage;
+        mCounterDamage = counterDamage;
+        mAttackerHp = attackerHp;
+        mDefenderHp = defenderHp;
+
+    }
+
+    /// Get the damage dealt to the defender.
+    public int getDamage() {
+        return mDamage;
+    }
+
+    /// Get the damage dealt to the attacker by the counter attack.
+    public int getCounterDamage() {
+        return mCounterDamage;
+    }
+
+    /// Get the HP the attacker is left with, 0 or less if it is destroyed.
+    public int getAttackerHp() {
+        return mAttackerHp - mCounterDamage;
+    }
+
+    /// Get the HP the defender is left with, 0 or less if it is destroyed.
+    public int getDefenderHp() {
+        return mDefenderHp - mDamage;
+    }
+
+    /// Check whether the attack destroys the defender.
+    public boolean isKill() {
+        return getDefenderHp() <= 0;
+    }
+
+    /// Check whether the counter attack destroys the attacker. Defenders destroyed by the attack
+    /// do not counter attack, so this is never true along with isKill.
+    public boolean isCounterKill() {
+        return getAttackerHp() <= 0;
+    }
+
+}
@@ -0,0 +1,148 @@
+package unit;
+
+import grid.Grid;
+import grid.Tile;
+import grid.Coordinates;
+import building.Building;
+import building.Flag;
+import terrain.Terrain;
+import terrain.Plains;
+import terrain.Mountain;
+import terrain.Water;
+import terrain.Road;
+
+/// Precomputed outcomes of attacks. Damage only depends on the unit types, the terrain each
+/// unit stands on and whether each unit stands on a building it owns, so every combination is
+/// computed once with the same float arithmetic as Unit and looked up afterwards.
+///
+/// A unit's situation packs its type, terrain type and building ownership into one index.
+/// Buildings are assumed to be flags, the only building units can own.
+public final class CombatTable {
+
+    // Unit statistics indexed by unit type.
+    private static final int[] ATTACK = {HeadQuarters.ATTACK, Snake.ATTACK, WheelSnake.ATTACK,
+                                         TankSnake.ATTACK, JetSnake.ATTACK};
+    private static final float[] DEFENSE = {HeadQuarters.DEFENSE, Snake.DEFENSE,
+                                            WheelSnake.DEFENSE, TankSnake.DEFENSE,
+                                            JetSnake.DEFENSE};
+
+    /// Cover multiplier indexed by terrain type.
+    private static final float[] COVER = {Plains.COVER_MULTIPLIER, Mountain.COVER_MULTIPLIER,
+                                          Water.COVER_MULTIPLIER, Road.COVER_MULTIPLIER};
+
+    /// Number of situations a unit can be in.
+    public static final int SITUATION_COUNT = Unit.UNIT_TYPE_COUNT * Terrain.TYPE_COUNT * 2;
+
+    /// Damage dealt to the defender, indexed by attacker situation * SITUATION_COUNT + defender
+    /// situation.
+    private static final int[] DAMAGE = new int[SITUATION_COUNT * SITUATION_COUNT];
+
+    /// Damage dealt to the attacker by the counter attack of a defender that survives, indexed
+    /// the same way. 0 if the defender cannot attack.
+    private static final int[] COUNTER_DAMAGE = new int[SITUATION_COUNT * SITUATION_COUNT];
+
+    static {
+
+        for (int attacker = 0; attacker < SITUATION_COUNT; ++attacker) {
+            for (int defender = 0; defender < SITUATION_COUNT; ++defender) {
+                int index = attacker * SITUATION_COUNT + defender;
+                DAMAGE[index] = computeDamage(getModifiedAttack(attacker), defender);
+                int counter = Unit.getCounterAttack(getModifiedAttack(defender));
+                COUNTER_DAMAGE[index] = (ATTACK[getType(defender)] != 0) ?
+                                        computeDamage(counter, attacker) : 0;
+            }
+        }
+
+    }
+
+    /// Static tables only.
+    private CombatTable() {}
+
+    /// Get the situation of a unit.
+    /// \param type type of unit.
+    /// \param terrain type of terrain the unit stands on.
+    /// \param ownBuilding whether the unit stands on a building its player owns.
+    public static int getSituation(int type, int terrain, boolean ownBuilding) {
+        return (type * Terrain.TYPE_COUNT + terrain) * 2 + (ownBuilding ? 1 : 0);
+    }
+
+    /// Get the situation a unit would be in on a tile.
+    /// \param grid grid the unit is on.
+    /// \param unit the unit.
+    /// \param coords position of the tile, which need not be the unit's position.
+    public static int getSituation(Grid grid, Unit unit, Coordinates coords) {
+
+        Tile tile = grid.getTile(coords);
+        Building building = tile.getBuilding();
+        boolean ownBuilding = building != null && building.getOwner() == unit.getPlayer();
+        return getSituation(unit.getType(), tile.getTerrain().getType(), ownBuilding);
+
+    }
+
+    /// Get the damage an attack deals to the defender.
+    /// \param attacker situation of the attacker.
+    /// \param defender situation of the defender.
+    public static int getDamage(int attacker, int defender) {
+        return DAMAGE[attacker * SITUATION_COUNT + defender];
+    }
+
+    /// Get the damage a defender's counter attack deals to the attacker if the defender
+    /// survives the attack.
+    /// \param attacker situation of the attacker.
+    /// \param defender situation of the defender.
+    public static int getCounterDamage(int attacker, int defender) {
+        return COUNTER_DAMAGE[attacker * SITUATION_COUNT + defender];
+    }
+
+    /// Forecast the outcome of an attack.
+    /// \param attacker situation of the attacker.
+    /// \param attackerHp HP of the attacker.
+    /// \param defender situation of the defender.
+    /// \param defenderHp HP of the defender.
+    public static CombatForecast forecast(int attacker, int attackerHp, int defender,
+                                          int defenderHp) {
+
+        int index = attacker * SITUATION_COUNT + defender;
+        int damage = DAMAGE[index];
+        int counterDamage = (damage < defenderHp) ? COUNTER_DAMAGE[index] : 0;
+        return new CombatForecast(damage, counterDamage, attackerHp, defenderHp);
+
+    }
+
+    /// Forecast the outcome of a unit attacking another unit.
+    /// \param grid grid the units are on.
+    /// \param attacker attacking unit.
+    /// \param from position the attacker attacks from, which need not be its position.
+    /// \param defender defending unit.
+    public static CombatForecast forecast(Grid grid, Unit attacker, Coordinates from,
+                                          Unit defender) {
+
+        return forecast(getSituation(grid, attacker, from), attacker.getHitPoints(),
+                        getSituation(grid, defender, defender.getCoords()),
+                        defender.getHitPoints());
+
+    }
+
+    /// Get the unit type of a situation.
+    private static int getType(int situation) {
+        return situation / (Terrain.TYPE_COUNT * 2);
+    }
+
+    /// Get the attack of the unit in a situation, boosted by a building it owns.
+    private static int getModifiedAttack(int situation) {
+
+        float boost = (situation % 2 == 1) ? Flag.BOOST : 0f;
+        return Unit.getModifiedAttack(ATTACK[getType(situation)], boost);
+
+    }
+
+    /// Compute the damage an attack deals to the unit in a situation.
+    private static int computeDamage(int attack, int situation) {
+
+        int terrain = (situation / 2) % Terrain.TYPE_COUNT;
+        float protection = (situation % 2 == 1) ? Flag.PROTECTION : 0f;
+        return Unit.getDamage(attack, COVER[terrain], protection, DEFENSE[getType(situation)]);
+
+    }
+
+}
@@ -3,11 +3,11 @@ package unit;
 import java.util.function.Consumer;
 import java.lang.Runnable;
 import java.util.ArrayList;
-import java.util.Iterator;
 import gameobject.TextureObject;
 import texture.Texture;
 import grid.Grid;
 import grid.Coordinates;
+import grid.TileSet;
 import menu.Button;
 import menu.ActionButton;
 import scene.PlayerStatus;
@@ -18,15 +18,15 @@ import config.Config;
 /// HeadQuarters that is capable of creating more snakes.
 public class HeadQuarters extends Unit {
 
-    private static final int MOVE_RANGE = 0;
-    private static final int ATTACK = 0;
-    private static final float DEFENSE = 0.6f;
+    public static final int MOVE_RANGE = 0;
+    public static final int ATTACK = 0;
+    public static final float DEFENSE = 0.6f;
 
     public HeadQuarters(Texture unitTexture, Texture buttonTexture,
                         int player, Grid grid) {
 
         super(unitTexture, buttonTexture, player,
-              grid, ATTACK, DEFENSE, MOVE_RANGE, STANDARD_MOVE);
+              grid, ATTACK, DEFENSE, MOVE_RANGE, STANDARD_MOVE, HQ_TYPE);
 
     }
 
@@ -34,7 +34,10 @@ public class HeadQuarters extends Unit {
 
         ArrayList<Button> buttons = new ArrayList<>();
 
-        ArrayList<Coordinates> buildCoords = getBuildCoords();
+        TileSet buildCoords = new TileSet(mGrid);
+        for (Coordinates coords : getBuildCoords()) {
+            buildCoords.add(coords);
+        }
         if (buildCoords.isEmpty()) {
             return buttons;
         }
@@ -62,21 +65,22 @@ public class HeadQuarters extends Unit {
 
     public ArrayList<Coordinates> getBuildCoords() {
 
-        ArrayList<Coordinates> neighbours = mGrid.getNeighbourCoords(mCoords);
-        Iterator<Coordinates> it = neighbours.iterator();
-        while (it.hasNext()) {
-            Coordinates current = it.next();
-            if (mGrid.getTile(current).getUnit() != null) {
-                it.remove();
+        int[] offsets = mGrid.getNeighbourOffsets();
+        int[] neighbours = mGrid.getNeighbours();
+        int index = mGrid.getIndex(mCoords);
+        ArrayList<Coordinates> buildCoords = new ArrayList<>();
+        for (int i = offsets[index]; i < offsets[index + 1]; ++i) {
+            if (mGrid.getTile(neighbours[i]).getUnit() == null) {
+                buildCoords.add(mGrid.getCoords(neighbours[i]));
             }
         }
-        return neighbours;
+        return buildCoords;
 
     }
 
     private Button createButton(GameManager gameManager,
                                 Consumer<Coordinates> selectAction, 
-                                ArrayList<Coordinates> buildCoords,
+                                TileSet buildCoords,
                                 int cost,
                                 String name) {
 
@@ -93,7 +97,7 @@ public class HeadQuarters extends Unit {
 
     }
 
-    private Button createSnakeButton(GameManager gameManager, ArrayList<Coordinates> buildCoords) {
+    private Button createSnakeButton(GameManager gameManager, TileSet buildCoords) {
 
         Consumer<Coordinates> createSnake =
             (Coordinates c) -> {
@@ -103,7 +107,7 @@ public class HeadQuarters extends Unit {
 
     }
 
-    private Button createWheelButton(GameManager gameManager, ArrayList<Coordinates> buildCoords) {
+    private Button createWheelButton(GameManager gameManager, TileSet buildCoords) {
 
         Consumer<Coordinates> createWheel =
             (Coordinates c) -> {
@@ -113,7 +117,7 @@ public class HeadQuarters extends Unit {
 
     }
 
-    private Button createTankButton(GameManager gameManager, ArrayList<Coordinates> buildCoords) {
+    private Button createTankButton(GameManager gameManager, TileSet buildCoords) {
 
         Consumer<Coordinates> createTank =
             (Coordinates c) -> {
@@ -123,7 +127,7 @@ public class HeadQuarters extends Unit {
 
     }
 
-    private Button createJetButton(GameManager gameManager, ArrayList<Coordinates> buildCoords) {
+    private Button createJetButton(GameManager gameManager, TileSet buildCoords) {
 
         Consumer<Coordinates> createJet =
             (Coordinates c) -> {
@@ -13,9 +13,9 @@ public class JetSnake extends Unit {
 
     public static final int COST = 3000;
 
-    private static int MOVE_RANGE = 5;
-    private static int ATTACK = 50;
-    private static float DEFENSE = 0f;
+    public static final int MOVE_RANGE = 5;
+    public static final int ATTACK = 50;
+    public static final float DEFENSE = 0f;
 
     private static int START_CLIP = 1;
     private static int END_CLIP = 3;
@@ -25,7 +25,7 @@ public class JetSnake extends Unit {
                     int player, Grid grid) {
 
         super(unitTexture, buttonTexture, player,
-              grid, ATTACK, DEFENSE, MOVE_RANGE, AIR_MOVE);
+              grid, ATTACK, DEFENSE, MOVE_RANGE, AIR_MOVE, JET_SNAKE_TYPE);
         setAnimation(START_CLIP, END_CLIP, DURATION);
 
     }
@@ -0,0 +1,86 @@
+package unit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import grid.Coordinates;
+import grid.TileSet;
+import collection.IntIntMap;
+
+/// Result of a move search. Holds the tiles reached with the previous step to each tile so paths
+/// are only built for the destination actually moved to.
+///
+/// Tiles are stored by index (y * width + x).
+final class MovePaths {
+
+    /// Width of the grid searched.
+    private final int mWidth;
+
+    /// Index of previous tile on the path to each reached tile, keyed by tile index. The start
+    /// has parent -1.
+    private final IntIntMap mParents;
+
+    /// Reached tiles the unit can stop on.
+    private final TileSet mDestinations;
+
+    /// Initialise search result.
+    /// \param width width of the grid searched.
+    /// \param parents index of previous tile on the path to each reached tile.
+    /// \param destinations reached tiles the unit can stop on.
+    public MovePaths(int width, IntIntMap parents, TileSet destinations) {
+
+        mWidth = width;
+        mParents = parents;
+        mDestinations = destinations;
+
+    }
+
+    /// Get the tiles the unit can stop on.
+    /// \return coordinates of each destination in tile index order.
+    public ArrayList<Coordinates> getDestinations() {
+        return mDestinations.getCoordinates();
+    }
+
+    /// Get the set of tiles the unit can stop on. The set is shared and must not be modified.
+    public TileSet getDestinationSet() {
+        return mDestinations;
+    }
+
+    /// Check whether the unit can stop on a tile.
+    public boolean contains(Coordinates coords) {
+        return mDestinations.contains(coords);
+    }
+
+    /// Get the path to a destination.
+    /// \param coords destination to get path to.
+    /// \return each step of the path, excluding the start and including the destination.
+    public ArrayList<Coordinates> getPath(Coordinates coords) {
+
+        assert contains(coords);
+
+        // Count steps first so the path can be filled in order.
+        int steps = 0;
+        for (int i = getIndex(coords); mParents.get(i) >= 0; i = mParents.get(i)) {
+            ++steps;
+        }
+
+        Coordinates[] path = new Coordinates[steps];
+        int index = getIndex(coords);
+        for (int step = steps - 1; step >= 0; --step) {
+            path[step] = getCoords(index);
+            index = mParents.get(index);
+        }
+        return new ArrayList<>(Arrays.asList(path));
+
+    }
+
+    /// Get the index of a tile.
+    private int getIndex(Coordinates coords) {
+        return coords.y * mWidth + coords.x;
+    }
+
+    /// Get the coordinates of a tile index.
+    private Coordinates getCoords(int index) {
+        return new Coordinates(index % mWidth, index / mWidth);
+    }
+
+}
@@ -1,18 +0,0 @@
-package unit;
-
-import grid.Coordinates;
-
-class PathCost {
-
-    public final Coordinates coords;
-    public final float cost;
-
-    public PathCost(Coordinates coords, float cost) {
-
-        this.coords = coords;
-        this.cost = cost;
-
-    }
-
-}
-
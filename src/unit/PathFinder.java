@@ -0,0 +1,286 @@
+package unit;
+
+import java.lang.ThreadLocal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import grid.Grid;
+import grid.Coordinates;
+import collection.IntIntMap;
+import collection.LongMinHeap;
+import grid.Tile;
+import grid.TileSet;
+import terrain.Terrain;
+
+/// Path searches over tile indices (y * width + x) using scratch arrays that are reused between
+/// searches. Each thread has its own path finder so searches never allocate per step and
+/// simulations on different threads do not share buffers.
+final class PathFinder {
+
+    /// Path finder for each thread.
+    private static final ThreadLocal<PathFinder> INSTANCE = ThreadLocal.withInitial(PathFinder::new);
+
+    /// Number of tiles buffers are sized for.
+    private int mCapacity;
+
+    /// Cost of the cheapest path found to each tile.
+    private int[] mCost;
+
+    /// Previous tile on the cheapest path found to each tile.
+    private int[] mParent;
+
+    /// Stamp of the search that last reached each tile. Tiles with an old stamp are unreached,
+    /// so buffers do not need clearing between searches.
+    private int[] mMark;
+
+    /// Stamp of the current search.
+    private int mStamp;
+
+    /// Indices of tiles reached in the current search.
+    private int[] mReached;
+    private int mReachedCount;
+
+    /// Stamp of the search each tile was last marked as a target in.
+    private int[] mTargetMark;
+
+    /// Priority of each tile in the heap, the cost plus any heuristic estimate of the remaining
+    /// cost.
+    private int[] mPriority;
+
+    /// Heap of entries of priority << 32 | index. Stale entries are skipped when popped.
+    private LongMinHeap mHeap;
+
+    /// Create empty buffers.
+    private PathFinder() {
+
+        mCapacity = 0;
+        mStamp = 0;
+
+    }
+
+    /// Get the path finder for the current thread.
+    public static PathFinder get() {
+        return INSTANCE.get();
+    }
+
+    /// Find every tile a unit can reach with a bounded Dijkstra search. Units can pass through,
+    /// but not stop on, tiles with units of the same player and cannot pass through other units.
+    /// \param grid grid to search.
+    /// \param start coordinates of unit.
+    /// \param moveType move type of unit.
+    /// \param range maximum total move cost.
+    /// \param player id of player owning unit.
+    /// \return reached tiles with paths to each.
+    public MovePaths findMoves(Grid grid, Coordinates start, int moveType, int range, int player) {
+
+        int[] offsets = grid.getNeighbourOffsets();
+        int[] neighbours = grid.getNeighbours();
+        begin(grid.getTileCount());
+
+        int startIndex = grid.getIndex(start);
+        reach(startIndex, 0, 0, -1);
+        while (!mHeap.isEmpty()) {
+
+            int current = pop();
+            if (current < 0) {
+                continue;
+            }
+            for (int i = offsets[current]; i < offsets[current + 1]; ++i) {
+
+                int neighbour = neighbours[i];
+                Tile tile = grid.getTile(neighbour);
+                Terrain terrain = tile.getTerrain();
+                Unit unit = tile.getUnit();
+                if (!terrain.isPassable(moveType) || (unit != null && unit.getPlayer() != player)) {
+                    continue;
+                }
+                int cost = mCost[current] + terrain.getMoveCost(moveType);
+                if (cost <= range && (!isReached(neighbour) || cost < mCost[neighbour])) {
+                    reach(neighbour, cost, cost, current);
+                }
+
+            }
+
+        }
+
+        // Record parents of reached tiles and the empty ones that can be stopped on.
+        IntIntMap parents = new IntIntMap(mReachedCount);
+        TileSet destinations = new TileSet(grid);
+        for (int i = 0; i < mReachedCount; ++i) {
+            int index = mReached[i];
+            parents.put(index, mParent[index]);
+            if (index != startIndex && grid.getTile(index).getUnit() == null) {
+                destinations.add(index);
+            }
+        }
+        return new MovePaths(grid.getWidth(), parents, destinations);
+
+    }
+
+    /// Find the cheapest path to a target with an A* search over terrain, ignoring units. The
+    /// grid's terrain distance table for the target is used as the heuristic. It is exact, so
+    /// only tiles on cheapest paths are expanded, and tiles that cannot reach the target are
+    /// skipped.
+    /// \param grid grid to search.
+    /// \param start coordinates to start from.
+    /// \param target coordinates to find a path to.
+    /// \param moveType move type of unit.
+    /// \return each step of the path excluding the start and including the target, or null if
+    ///         there is no path.
+    public ArrayList<Coordinates> findPath(Grid grid, Coordinates start, Coordinates target,
+                                           int moveType) {
+
+        int[] offsets = grid.getNeighbourOffsets();
+        int[] neighbours = grid.getNeighbours();
+        int[] distances = grid.getDistances(moveType, target);
+        begin(grid.getTileCount());
+
+        int startIndex = grid.getIndex(start);
+        int targetIndex = grid.getIndex(target);
+        if (distances[startIndex] == Grid.UNREACHABLE) {
+            return null;
+        }
+        reach(startIndex, 0, distances[startIndex], -1);
+        while (!mHeap.isEmpty()) {
+
+            int current = pop();
+            if (current == targetIndex) {
+                return buildPath(grid, targetIndex);
+            }
+            if (current < 0) {
+                continue;
+            }
+            for (int i = offsets[current]; i < offsets[current + 1]; ++i) {
+
+                int neighbour = neighbours[i];
+                Terrain terrain = grid.getTile(neighbour).getTerrain();
+                if (!terrain.isPassable(moveType) || distances[neighbour] == Grid.UNREACHABLE) {
+                    continue;
+                }
+                int cost = mCost[current] + terrain.getMoveCost(moveType);
+                if (!isReached(neighbour) || cost < mCost[neighbour]) {
+                    reach(neighbour, cost, cost + distances[neighbour], current);
+                }
+
+            }
+
+        }
+        return null;
+
+    }
+
+    /// Find the cheapest path to the nearest of several targets with a Dijkstra search over
+    /// terrain, ignoring units. The search stops at the first target reached, so it costs no more
+    /// than a search for that target alone.
+    /// \param grid grid to search.
+    /// \param start coordinates to start from.
+    /// \param targets coordinates to find a path to the nearest of.
+    /// \param moveType move type of unit.
+    /// \return each step of the path excluding the start and including the target, or null if no
+    ///         target can be reached.
+    public ArrayList<Coordinates> findNearestPath(Grid grid, Coordinates start,
+                                                  ArrayList<Coordinates> targets, int moveType) {
+
+        int[] offsets = grid.getNeighbourOffsets();
+        int[] neighbours = grid.getNeighbours();
+        begin(grid.getTileCount());
+        for (Coordinates target : targets) {
+            mTargetMark[grid.getIndex(target)] = mStamp;
+        }
+
+        reach(grid.getIndex(start), 0, 0, -1);
+        while (!mHeap.isEmpty()) {
+
+            int current = pop();
+            if (current < 0) {
+                continue;
+            }
+            if (mTargetMark[current] == mStamp) {
+                return buildPath(grid, current);
+            }
+            for (int i = offsets[current]; i < offsets[current + 1]; ++i) {
+
+                int neighbour = neighbours[i];
+                Terrain terrain = grid.getTile(neighbour).getTerrain();
+                if (!terrain.isPassable(moveType)) {
+                    continue;
+                }
+                int cost = mCost[current] + terrain.getMoveCost(moveType);
+                if (!isReached(neighbour) || cost < mCost[neighbour]) {
+                    reach(neighbour, cost, cost, current);
+                }
+
+            }
+
+        }
+        return null;
+
+    }
+
+    /// Build the path to a tile reached in the current search by following parents.
+    /// \return each step of the path excluding the start.
+    private ArrayList<Coordinates> buildPath(Grid grid, int index) {
+
+        int steps = 0;
+        for (int i = index; mParent[i] >= 0; i = mParent[i]) {
+            ++steps;
+        }
+        Coordinates[] path = new Coordinates[steps];
+        for (int step = steps - 1; step >= 0; --step) {
+            path[step] = grid.getCoords(index);
+            index = mParent[index];
+        }
+        return new ArrayList<>(Arrays.asList(path));
+
+    }
+
+    /// Start a new search, growing buffers if needed.
+    /// \param tiles number of tiles on the grid to search.
+    private void begin(int tiles) {
+
+        if (tiles > mCapacity) {
+            mCapacity = tiles;
+            mCost = new int[tiles];
+            mParent = new int[tiles];
+            mMark = new int[tiles];
+            mReached = new int[tiles];
+            mPriority = new int[tiles];
+            mTargetMark = new int[tiles];
+            mHeap = new LongMinHeap(tiles * 4);
+            mStamp = 0;
+        }
+        ++mStamp;
+        mReachedCount = 0;
+        mHeap.clear();
+
+    }
+
+    /// Check whether a tile has been reached in the current search.
+    private boolean isReached(int index) {
+        return mMark[index] == mStamp;
+    }
+
+    /// Record a new or cheaper path to a tile and add it to the heap.
+    private void reach(int index, int cost, int priority, int parent) {
+
+        if (!isReached(index)) {
+            mMark[index] = mStamp;
+            mReached[mReachedCount++] = index;
+        }
+        mCost[index] = cost;
+        mPriority[index] = priority;
+        mParent[index] = parent;
+        mHeap.push(((long)priority << 32) | index);
+
+    }
+
+    /// Remove the entry with the lowest priority from the heap.
+    /// \return index of the tile removed or -1 if the entry was stale.
+    private int pop() {
+
+        long top = mHeap.pop();
+        int index = (int)top;
+        return ((int)(top >>> 32) > mPriority[index]) ? -1 : index;
+
+    }
+
+}
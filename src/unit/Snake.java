@@ -12,9 +12,9 @@ public class Snake extends Unit {
 
     public static final int COST = 1000;
 
-    private static int MOVE_RANGE = 3;
-    private static int ATTACK = 50;
-    private static float DEFENSE = 0f;
+    public static final int MOVE_RANGE = 3;
+    public static final int ATTACK = 50;
+    public static final float DEFENSE = 0f;
 
     private static int START_CLIP = 1;
     private static int END_CLIP = 6;
@@ -24,7 +24,7 @@ public class Snake extends Unit {
                  int player, Grid grid) {
 
         super(unitTexture, buttonTexture, player,
-              grid, ATTACK, DEFENSE, MOVE_RANGE, STANDARD_MOVE);
+              grid, ATTACK, DEFENSE, MOVE_RANGE, STANDARD_MOVE, SNAKE_TYPE);
         setAnimation(START_CLIP, END_CLIP, DURATION);
 
     }
@@ -13,9 +13,9 @@ public class TankSnake extends Unit {
 
     public static final int COST = 3000;
 
-    private static int MOVE_RANGE = 4;
-    private static int ATTACK = 90;
-    private static float DEFENSE = 0.4f;
+    public static final int MOVE_RANGE = 4;
+    public static final int ATTACK = 90;
+    public static final float DEFENSE = 0.4f;
 
     private static int START_CLIP = 1;
     private static int END_CLIP = 3;
@@ -25,7 +25,7 @@ public class TankSnake extends Unit {
                      int player, Grid grid) {
 
         super(unitTexture, buttonTexture, player,
-              grid, ATTACK, DEFENSE, MOVE_RANGE, VEHICLE_MOVE);
+              grid, ATTACK, DEFENSE, MOVE_RANGE, VEHICLE_MOVE, TANK_SNAKE_TYPE);
         setAnimation(START_CLIP, END_CLIP, DURATION);
 
     }
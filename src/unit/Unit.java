@@ -3,16 +3,9 @@ package unit;
 import processing.core.PApplet;
 import processing.core.PVector;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Queue;
-import java.util.Comparator;
-import java.util.PriorityQueue;
-import java.util.LinkedList;
 import java.util.function.Consumer;
 import java.lang.Runnable;
+import java.lang.Math;
 import gameobject.RenderableObject;
 import gameobject.TextureObject;
 import gameobject.TextObject;
@@ -21,6 +14,7 @@ import texture.Animation;
 import grid.Grid;
 import grid.Coordinates;
 import grid.Tile;
+import grid.TileSet;
 import menu.Button;
 import menu.ActionButton;
 import scene.GameManager;
@@ -37,6 +31,14 @@ public abstract class Unit extends RenderableObject {
     public final static int AIR_MOVE = 2;
     public final static int MOVE_TYPE_COUNT = 3;
 
+    // Unit type constants.
+    public final static int HQ_TYPE = 0;
+    public final static int SNAKE_TYPE = 1;
+    public final static int WHEEL_SNAKE_TYPE = 2;
+    public final static int TANK_SNAKE_TYPE = 3;
+    public final static int JET_SNAKE_TYPE = 4;
+    public final static int UNIT_TYPE_COUNT = 5;
+
     /// Time taken to move across one tile.
     private final static float MOVE_DURATION = 0.5f;
 
@@ -53,7 +55,7 @@ public abstract class Unit extends RenderableObject {
     private final static float STATUS_OFFSET = 30f;
 
     /// Unit HP.
-    private final static int BASE_HITPOINTS = 100;
+    public final static int BASE_HITPOINTS = 100;
 
     /// Base attack rating.
     private final int mAttack;
@@ -67,6 +69,9 @@ public abstract class Unit extends RenderableObject {
     /// Movement range of unit.
     private final int mMoveRange;
 
+    /// Type of unit.
+    private final int mType;
+
     /// Texture to use for displaying unit.
     private final TextureObject mTexture;
 
@@ -82,6 +87,9 @@ public abstract class Unit extends RenderableObject {
     /// Current HP.
     private int mHitPoints;
 
+    /// HP previewed for a forecast attack or -1 if none.
+    private int mForecastHp;
+
     /// Whether the unit has moved.
     private boolean mMoved;
 
@@ -91,6 +99,15 @@ public abstract class Unit extends RenderableObject {
     /// Whether the unit is currently occupied with another action.
     private boolean mBusy;
 
+    /// Whether moves and attacks take full effect immediately, with any animation
+    /// only replaying them for presentation.
+    private boolean mInstant;
+
+    /// Whether the current attack's damage was dealt when it began, so replaying it must not
+    /// deal it again. Kept per attack so switching to or from instant resolution mid-attack
+    /// neither skips nor repeats damage.
+    private boolean mAttackResolved;
+
     /// Whether the unit has attacked in its attack step.
     private boolean mAttacked;
 
@@ -103,8 +120,11 @@ public abstract class Unit extends RenderableObject {
     /// Time passed carrying out current action.
     private float mActionProgress;
 
-    /// Map of available destinations to paths to that destination.
-    private Map<Coordinates, ArrayList<Coordinates>> mPaths;
+    /// Available destinations with paths to each destination.
+    private MovePaths mPaths;
+
+    /// Grid modification count when paths were found. Paths are reused until the grid changes.
+    private long mPathsVersion;
 
     /// Current path being followed.
     private ArrayList<Coordinates> mMovePath;
@@ -125,6 +145,8 @@ public abstract class Unit extends RenderableObject {
     protected Coordinates mCoords;
 
     /// Initialise unit.
+    /// \param unitTexture texture to display unit with or null if headless.
+    /// \param buttonTexture texture to display action buttons with or null if headless.
     public Unit(Texture unitTexture, 
                 Texture buttonTexture, 
                 int player,
@@ -132,7 +154,8 @@ public abstract class Unit extends RenderableObject {
                 int attack,
                 float defense,
                 int moveRange,
-                int moveType) {
+                int moveType,
+                int type) {
 
         mTexture = new TextureObject(unitTexture);
         mAnimation = null;
@@ -143,6 +166,7 @@ public abstract class Unit extends RenderableObject {
         mHealthStatus.setColour(Config.PLAYER_COLOURS[player]);
         mActionStatus.setColour(Config.PLAYER_COLOURS[player]);
         mHitPoints = BASE_HITPOINTS;
+        mForecastHp = -1;
 
         mButtonTexture = buttonTexture;
         mPlayer = player;
@@ -150,9 +174,11 @@ public abstract class Unit extends RenderableObject {
         mCoords = null;
 
         mPaths = null;
+        mPathsVersion = 0;
         mMovePath = null;
         mMoveCoords = null;
 
+        mAttackResolved = false;
         mAttacked = false;
         mAttackerStep = true;
         mAttackCoords = null;
@@ -162,11 +188,13 @@ public abstract class Unit extends RenderableObject {
         mMoved = true;
         mActed = true;
         mBusy = false;
+        mInstant = false;
 
         mAttack = attack;
         mDefense = defense;
         mMoveRange = moveRange;
         mMoveType = moveType;
+        mType = type;
 
         setStatus();
         mTexture.setClip(player);
@@ -177,10 +205,13 @@ public abstract class Unit extends RenderableObject {
     /// \param delta time since last update.
     public void update(float delta) {
 
-        setStatus();
-        if (mAnimation != null) {
-            mAnimation.update(delta);
-            mTexture.setClip(mAnimation.getClip());
+        // Headless units have nothing to display so skip updating status and animation.
+        if (mTexture.hasTexture()) {
+            setStatus();
+            if (mAnimation != null) {
+                mAnimation.update(delta);
+                mTexture.setClip(mAnimation.getClip());
+            }
         }
 
         if (mMovePath != null) {
@@ -221,6 +252,53 @@ public abstract class Unit extends RenderableObject {
         return mHitPoints <= 0;
     }
 
+    /// Get type of unit.
+    public int getType() {
+        return mType;
+    }
+
+    /// Get type of movement unit uses.
+    public int getMoveType() {
+        return mMoveType;
+    }
+
+    /// Get current HP.
+    public int getHitPoints() {
+        return mHitPoints;
+    }
+
+    /// Set current HP.
+    public void setHitPoints(int hitPoints) {
+        mHitPoints = hitPoints;
+    }
+
+    /// Show the HP the unit would be left with after a forecast attack.
+    /// \param hitPoints HP after the attack, 0 or less if destroyed.
+    public void setForecastHp(int hitPoints) {
+        mForecastHp = Math.max(0, hitPoints);
+    }
+
+    /// Stop showing a forecast attack's HP.
+    public void clearForecast() {
+        mForecastHp = -1;
+    }
+
+    /// Check whether the unit has moved this turn.
+    public boolean hasMoved() {
+        return mMoved;
+    }
+
+    /// Check whether the unit has carried out an action this turn.
+    public boolean hasActed() {
+        return mActed;
+    }
+
+    /// Set whether the unit has moved and carried out an action this turn.
+    public void setActionState(boolean moved, boolean acted) {
+        mMoved = moved;
+        mActed = acted;
+    }
+
     /// Get ID of owner of unit.
     public int getPlayer() {
         return mPlayer;
@@ -241,6 +319,12 @@ public abstract class Unit extends RenderableObject {
         mBusy = busy;
     }
 
+    /// Set whether moves and attacks take full effect immediately. Instant units with
+    /// a texture still replay their animations but are only busy for presentation.
+    public void setInstant(boolean instant) {
+        mInstant = instant;
+    }
+
     /// Initiate an attack on unit at target coordinates.
     public void attack(Coordinates coords) {
 
@@ -249,6 +333,16 @@ public abstract class Unit extends RenderableObject {
         assert !mBusy;
         assert !defender.isBusy();
 
+        // Apply damage straight away for instant attacks, skipping replay if there
+        // is nothing to display.
+        mAttackResolved = mInstant;
+        if (mInstant) {
+            resolveAttack(defender);
+            if (!mTexture.hasTexture()) {
+                return;
+            }
+        }
+
         mBusy = true;
         defender.setBusy(true);
 
@@ -264,38 +358,74 @@ public abstract class Unit extends RenderableObject {
         return mAttack;
     }
 
+    /// Get the unit's defense multiplier.
+    public float getDefense() {
+        return mDefense;
+    }
+
     /// Get attack modified based on bonuses provided by buildings.
     public int getModifiedAttack() {
 
-        float attack = mAttack;
+        float boost = 0f;
         Tile tile = mGrid.getTile(mCoords); 
         Building building = tile.getBuilding();
         if (building != null && building.getOwner() == mPlayer) {
-            attack += attack * building.getBoost();
+            boost = building.getBoost();
         }
-        return (int)attack;
+        return getModifiedAttack(mAttack, boost);
+
+    }
+
+    /// Calculate an attack modified by a building's boost.
+    /// \param attack base attack.
+    /// \param boost boost multiplier of building owned by the attacker, 0 if none.
+    /// \return the modified attack.
+    public static int getModifiedAttack(int attack, float boost) {
+
+        float modified = attack;
+        modified += modified * boost;
+        return (int)modified;
 
     }
 
-    /// Deal attack damage to this unit. Damage is decreased by defense
-    /// multiplier, terrain cover multiplier and building protection multiplier.
-    /// \param attack base damage to deal to unit.
-    public void dealDamage(int attack) {
+    /// Calculate the damage dealt by an attack after defense, terrain cover and
+    /// building protection.
+    /// \param attack base damage of attack.
+    /// \param cover cover multiplier of defender's terrain.
+    /// \param protection protection multiplier of building owned by the defender, 0 if none.
+    /// \param defense defense multiplier of defender.
+    /// \return the damage dealt.
+    public static int getDamage(int attack, float cover, float protection, float defense) {
 
         float damage = attack;
-        Tile tile = mGrid.getTile(mCoords); 
-        damage -= damage * tile.getTerrain().getCover();
+        damage -= damage * cover;
+        damage -= damage * protection;
+        damage -= damage * defense;
+        return (int)damage;
 
-        Building building = tile.getBuilding();
-        if (building != null && building.getOwner() == mPlayer) {
-            damage -= damage * building.getProtection();
-        }
+    }
+
+    /// Calculate the base damage of a counter attack.
+    /// \param modifiedAttack modified attack of unit counter attacking.
+    /// \return the base damage of the counter attack.
+    public static int getCounterAttack(int modifiedAttack) {
 
-        damage -= damage * mDefense;
-        mHitPoints -= (int)damage;
+        return (int)(modifiedAttack * COUNTER_ATTACK_MODIFIER);
 
     }
 
+    /// Get the combat table situation of the unit at its position.
+    public int getCombatSituation() {
+        return CombatTable.getSituation(mGrid, this, mCoords);
+    }
+
+    /// Forecast the outcome of attacking another unit.
+    /// \param from position to attack from, which need not be the unit's position.
+    /// \param defender unit to attack.
+    public CombatForecast forecastAttack(Coordinates from, Unit defender) {
+        return CombatTable.forecast(mGrid, this, from, defender);
+    }
+
     /// Set coordinates of the unit. If unit is already at another position
     /// then initiate move between old position and new position.
     /// \param coords position to move unit to.
@@ -306,17 +436,27 @@ public abstract class Unit extends RenderableObject {
             assert !mMoved;
             assert !mActed;
             assert !mBusy;
-            assert mPaths.containsKey(coords);
+            assert mPaths.contains(coords);
 
-            mMoveCoords = mCoords;
-            mActionProgress = 0f;
-            mMovePath = mPaths.get(coords);
-            mCoords = coords;
-            mBusy = true;
             mMoved = true;
 
-            // Update initial offset for movement.
-            moveTransform();
+            // Instant moves with nothing to display do not need to follow the path.
+            if (mInstant && !mTexture.hasTexture()) {
+
+                mCoords = coords;
+
+            } else {
+
+                mMoveCoords = mCoords;
+                mActionProgress = 0f;
+                mMovePath = mPaths.getPath(coords);
+                mCoords = coords;
+                mBusy = true;
+
+                // Update initial offset for movement.
+                moveTransform();
+
+            }
 
         } else {
             mCoords = coords;
@@ -355,14 +495,34 @@ public abstract class Unit extends RenderableObject {
     /// \return array of positions unit can move to.
     public ArrayList<Coordinates> getDestinations() {
 
-        ArrayList<Coordinates> destinations = new ArrayList<>();
-        if (mCoords != null) {
-            mPaths = getPaths();
-            for (Coordinates coords : mPaths.keySet()) {
-                destinations.add(coords);
-            }
+        if (mCoords == null) {
+            return new ArrayList<>();
         }
-        return destinations;
+        return getPaths().getDestinations();
+
+    }
+
+    /// Get move destinations available for unit as a set of tile indices. The set is shared
+    /// until the grid changes and must not be modified.
+    /// \return set of tiles unit can move to.
+    public TileSet getDestinationSet() {
+
+        if (mCoords == null) {
+            return new TileSet(mGrid);
+        }
+        return getPaths().getDestinationSet();
+
+    }
+
+    /// Get the result of the move search from the unit's position, searching again if the grid
+    /// has changed since the last search.
+    private MovePaths getPaths() {
+
+        if (mPaths == null || mPathsVersion != mGrid.getModificationCount()) {
+            mPaths = PathFinder.get().findMoves(mGrid, mCoords, mMoveType, mMoveRange, mPlayer);
+            mPathsVersion = mGrid.getModificationCount();
+        }
+        return mPaths;
 
     }
 
@@ -377,12 +537,14 @@ public abstract class Unit extends RenderableObject {
     /// \return coordinates of positions this unit can attack from its target position.
     public ArrayList<Coordinates> getAttackTargets(Coordinates coords) {
 
-        ArrayList<Coordinates> targets = mGrid.getNeighbourCoords(coords);
-        Iterator<Coordinates> it = targets.iterator();
-        while(it.hasNext()) {
-            Unit unit = mGrid.getTile(it.next()).getUnit();
-            if (unit == null || unit.getPlayer() == mPlayer) {
-                it.remove();
+        int[] offsets = mGrid.getNeighbourOffsets();
+        int[] neighbours = mGrid.getNeighbours();
+        int index = mGrid.getIndex(coords);
+        ArrayList<Coordinates> targets = new ArrayList<>();
+        for (int i = offsets[index]; i < offsets[index + 1]; ++i) {
+            Unit unit = mGrid.getTile(neighbours[i]).getUnit();
+            if (unit != null && unit.getPlayer() != mPlayer) {
+                targets.add(mGrid.getCoords(neighbours[i]));
             }
         }
         return targets;
@@ -393,73 +555,22 @@ public abstract class Unit extends RenderableObject {
     /// \param target target to get shortest path to.
     /// \return list of coordinates making up shortest path to target or null if no path exists.
     public ArrayList<Coordinates> getShortestPath(Coordinates target) {
+        return PathFinder.get().findPath(mGrid, mCoords, target, mMoveType);
+    }
 
-        // Evaluated coordinates.
-        HashSet<Coordinates> evaluated = new HashSet<Coordinates>();
-
-        // Previous step to reach a cell.
-        HashMap<Coordinates, Coordinates> previousStep = new HashMap<Coordinates, Coordinates>();
-
-        // Cost of reaching a cell.
-        HashMap<Coordinates, Float> baseCost = new HashMap<Coordinates, Float>();
-        baseCost.put(mCoords, 0f);
-
-        // Unevaluated coordinates with baseCost + admissable heuristic (Directly to the target).
-        PriorityQueue<PathCost> unevaluated = new PriorityQueue<PathCost>(11, new PathComparator());
-        unevaluated.add(new PathCost(mCoords, mCoords.distance(target)));
-
-        boolean found = false;
-        Coordinates current = null;
-
-        // Search until target found or no more cells to evaluate.
-        while (!found && unevaluated.peek() != null) {
-
-            // Get lowest cost unevaluated nodes.
-            current = unevaluated.poll().coords;
-            found = current.equals(target);
-
-            // If it is not target and a better path has not been evaluated already
-            // then evaluate its neighbours.
-            if (!found && !evaluated.contains(current)) {
-
-                evaluated.add(current);  
-                ArrayList<Coordinates> neighbours = mGrid.getNeighbourCoords(current);
-                Iterator<Coordinates> it = neighbours.iterator();
-
-                // Evaluate neighbours.
-                while (it.hasNext()) {
-
-                    Coordinates n = it.next();
-                    Terrain nTerrain = mGrid.getTile(n).getTerrain();
-                    if (!evaluated.contains(n) && nTerrain.isPassable(mMoveType)) {
-
-                        float g = baseCost.get(current) + nTerrain.getMoveCost(mMoveType);
-                        if (!baseCost.containsKey(n) || baseCost.get(n) > g) {
-
-                            baseCost.put(n, g); 
-                            previousStep.put(n, current);
-                            float f = g + n.distance(target);
-                            unevaluated.add(new PathCost(n, f));
-
-                        }
-                    }
-                }
-            }
-        }
-
-        // Reconstruct path if a path was found.
-        if (found) {
-            ArrayList<Coordinates> path = new ArrayList<Coordinates>();
-            while (!current.equals(mCoords)) {
-                path.add(0, current);
-                current = previousStep.get(current);
-            }
-            return path;
-        }
-
-        // Return null if no path was found.
-        return null;
+    /// Get the total move cost of the cheapest path to a target over terrain, ignoring units.
+    /// \param target target to get the cost to.
+    /// \return the move cost or Grid.UNREACHABLE if the unit cannot reach the target.
+    public int getDistance(Coordinates target) {
+        return mGrid.getDistance(mMoveType, mCoords, target);
+    }
 
+    /// Get the cheapest path the unit would need to take to get to the nearest of several targets.
+    /// \param targets targets to find the nearest of.
+    /// \return list of coordinates making up the path to the target with the lowest total move
+    ///         cost or null if no target can be reached.
+    public ArrayList<Coordinates> getShortestPath(ArrayList<Coordinates> targets) {
+        return PathFinder.get().findNearestPath(mGrid, mCoords, targets, mMoveType);
     }
 
     /// Get any additional actions the unit can perform. To be overridden by subclasses that wish
@@ -484,7 +595,11 @@ public abstract class Unit extends RenderableObject {
     /// Set movement and action status of unit.
     private void setStatus() {
 
-        mHealthStatus.setText("HP: " + mHitPoints);
+        if (mForecastHp >= 0) {
+            mHealthStatus.setText("HP: " + mHitPoints + " > " + mForecastHp);
+        } else {
+            mHealthStatus.setText("HP: " + mHitPoints);
+        }
         String actionString = new String("");
         if (!mMoved) {
             actionString += "M";
@@ -504,7 +619,7 @@ public abstract class Unit extends RenderableObject {
         if (mMoveRange <= 0) {
             return null;
         }
-        ArrayList<Coordinates> destinations = getDestinations();
+        TileSet destinations = getDestinationSet();
         if (destinations.isEmpty()) {
             return null;
         }
@@ -529,11 +644,10 @@ public abstract class Unit extends RenderableObject {
         if (mAttack <= 0) {
             return null;
         }
-        ArrayList<Coordinates> targets = getAttackTargets();
-        Iterator<Coordinates> it = targets.iterator();
-        while (it.hasNext()) {
-            if (mGrid.getTile(it.next()).getUnit().isBusy()) {
-                it.remove();
+        TileSet targets = new TileSet(mGrid);
+        for (Coordinates target : getAttackTargets()) {
+            if (!mGrid.getTile(target).getUnit().isBusy()) {
+                targets.add(target);
             }
         }
         if (targets.isEmpty()) {
@@ -546,6 +660,7 @@ public abstract class Unit extends RenderableObject {
         Runnable setSelect = 
             () -> {
                 gameManager.setSelectable(targets, attack);
+                gameManager.setAttackPreview(this);
             };
         return new ActionButton(mButtonTexture, "Attack", Config.BUTTON_TEXT_SIZE, setSelect);
 
@@ -568,48 +683,6 @@ public abstract class Unit extends RenderableObject {
 
     }
 
-
-    /// Get map of destinations unit can move to with paths to each destination.
-    /// \return Map of destinations unit can move to with paths to each destination.
-    private Map<Coordinates, ArrayList<Coordinates>> getPaths() {
-
-        Map<Coordinates, ArrayList<Coordinates>> paths = new HashMap<Coordinates, ArrayList<Coordinates>>();
-
-        Queue<PathData> unevaluated = new LinkedList<>();
-        unevaluated.add(new PathData(0, mCoords));
-        while (!unevaluated.isEmpty()) {
-
-            PathData current = unevaluated.poll();
-            if (current.cost <= mMoveRange) {
-
-                if (!current.coords.equals(mCoords) && 
-                    !paths.containsKey(current.coords) &&
-                    mGrid.getTile(current.coords).getUnit() == null) {
-                    paths.put(current.coords, current.path);
-                }
-
-                ArrayList<Coordinates> neighbours = mGrid.getNeighbourCoords(current.coords);
-                Iterator<Coordinates> it = neighbours.iterator();
-                while (it.hasNext()) {
-
-                    Coordinates neighbour = it.next();
-                    Tile tile = mGrid.getTile(neighbour);
-                    Terrain terrain = tile.getTerrain();
-                    Unit unit = tile.getUnit();
-                    if ((unit == null || unit.getPlayer() == mPlayer) && 
-                        terrain.isPassable(mMoveType)) {
-                        unevaluated.add(
-                            new PathData(current.cost + terrain.getMoveCost(mMoveType), 
-                                         neighbour,
-                                         current.path));
-                    }
-                }
-            }
-        }
-        return paths;
-
-    }
-
     /// Update move progress.
     /// \param delta time since last update.
     private void updateMove(float delta) {
@@ -649,7 +722,10 @@ public abstract class Unit extends RenderableObject {
                 if (!mAttacked) {
 
                     mAttacked = true;
-                    defender.dealDamage(getModifiedAttack());
+                    if (!mAttackResolved) {
+                        defender.takeDamage(CombatTable.getDamage(getCombatSituation(),
+                                                                  defender.getCombatSituation()));
+                    }
 
                 } else {
                     
@@ -667,7 +743,10 @@ public abstract class Unit extends RenderableObject {
 
                 if (!mAttacked) {
                     mAttacked = true;
-                    dealDamage((int)(defender.getModifiedAttack() * COUNTER_ATTACK_MODIFIER));
+                    if (!mAttackResolved) {
+                        takeDamage(CombatTable.getCounterDamage(getCombatSituation(),
+                                                                defender.getCombatSituation()));
+                    }
                 } else {
                     finishAttack();
                 }
@@ -679,6 +758,22 @@ public abstract class Unit extends RenderableObject {
 
     }
 
+    /// Deal attack damage to a defender followed by any counter attack damage to this unit.
+    /// \param defender unit being attacked.
+    private void resolveAttack(Unit defender) {
+
+        CombatForecast forecast = forecastAttack(mCoords, defender);
+        defender.takeDamage(forecast.getDamage());
+        takeDamage(forecast.getCounterDamage());
+
+    }
+
+    /// Deal damage looked up in the combat table to this unit.
+    /// \param damage damage after defense, terrain cover and building protection.
+    private void takeDamage(int damage) {
+        mHitPoints -= damage;
+    }
+
     /// Complete attack by resetting attack tracking variables and resetting transform.
     private void finishAttack() {
 
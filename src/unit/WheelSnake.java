@@ -13,9 +13,9 @@ public class WheelSnake extends Unit {
 
     public static final int COST = 2000;
 
-    private static int MOVE_RANGE = 6;
-    private static int ATTACK = 60;
-    private static float DEFENSE = 0.1f;
+    public static final int MOVE_RANGE = 6;
+    public static final int ATTACK = 60;
+    public static final float DEFENSE = 0.1f;
 
     private static int START_CLIP = 1;
     private static int END_CLIP = 12;
@@ -25,7 +25,7 @@ public class WheelSnake extends Unit {
                       int player, Grid grid) {
 
         super(unitTexture, buttonTexture, player,
-              grid, ATTACK, DEFENSE, MOVE_RANGE, VEHICLE_MOVE);
+              grid, ATTACK, DEFENSE, MOVE_RANGE, VEHICLE_MOVE, WHEEL_SNAKE_TYPE);
         setAnimation(START_CLIP, END_CLIP, DURATION);
 
     }